@@ -0,0 +1,87 @@
+package net.jonahmiller5.integrations.slack;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Messages per second through a SlackDispatcher on a fixed platform thread pool versus one
+ * virtual thread per send, against a SlackMockServer that answers after a fixed delay
+ *
+ * VIRTUAL runs need JDK 21 or later.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class SlackDispatcherBenchmark {
+
+	private static final int BATCH = 1000;
+
+	@Param({ "PLATFORM", "VIRTUAL" })
+	public SlackExecutionMode mode;
+
+	@Param({ "64", "512" })
+	public int concurrency;
+
+	@Param({ "20" })
+	public int latencyMillis;
+
+	private SlackMockServer server;
+	private SlackConnectionPool pool;
+	private SlackDispatcher dispatcher;
+	private SlackMessage message;
+
+	@Setup
+	public void setUp() throws IOException {
+		server = new SlackMockServer().setLatency(latencyMillis).start();
+
+		pool = new SlackConnectionPool().setMaxConnections(concurrency);
+		final SlackApi api = new SlackApi(server.getUrl()).setConnectionPool(pool);
+		dispatcher = new SlackDispatcher(api, BATCH, concurrency, SlackOverflowPolicy.BLOCK, mode);
+		message = new SlackMessage("#alerts", "benchmark", "Disk usage above 90% on db-1");
+	}
+
+	@TearDown
+	public void tearDown() throws InterruptedException {
+		dispatcher.shutdown(TimeUnit.SECONDS.toMillis(30));
+		pool.close();
+		server.stop();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public long sendBatch() {
+		final long target = completed() + BATCH;
+		for (int i = 0; i < BATCH; i++) {
+			dispatcher.submit(message);
+		}
+
+		long done;
+		while ((done = completed()) < target) {
+			LockSupport.parkNanos(50000);
+		}
+
+		return done;
+	}
+
+	private long completed() {
+		return dispatcher.getSentCount() + dispatcher.getFailedCount() + dispatcher.getDroppedCount();
+	}
+}
@@ -0,0 +1,232 @@
+package net.jonahmiller5.integrations.slack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Messages per second and latency percentiles of the whole SlackApi.call path, from prepare()
+ * to the parsed response, against a SlackMockServer on loopback
+ *
+ * Every combination of fault, concurrency and payload size runs for a fixed time, each caller
+ * thread calling in a closed loop over a shared keep-alive pool. JMH's sample mode reports one
+ * thread count per run, so this drives the threads itself and prints one table row per
+ * combination. The server answers normally, throttles a share of posts with 429 rate_limited, or
+ * holds a share of them for a slow response. msgs/s and the percentiles count successful calls
+ * only; failed calls, e.g. throttled ones with no retry policy set, are counted under errors.
+ *
+ * Usage: java -cp ... net.jonahmiller5.integrations.slack.SlackEndToEndBenchmark [seconds] [latencyMillis] [fault]
+ *
+ * with the classpath SlackSerializationBenchmark gives for running the JMH benchmarks.
+ */
+public class SlackEndToEndBenchmark {
+
+	private static final int[] CONCURRENCY = { 1, 8, 64 };
+	private static final long DEFAULT_SECONDS = 5;
+	private static final long DEFAULT_LATENCY = 0;
+
+	/**
+	 * Faults the mock server injects
+	 */
+	enum Fault {
+		/** every post answered after the base latency */
+		NONE(0, 0),
+		/** one post in twenty answered 429 with Retry-After: 1 */
+		THROTTLED(0.05, 0),
+		/** one post in twenty held for 250 ms */
+		SLOW(0, 0.05);
+
+		final double throttleRate;
+		final double slowRate;
+
+		Fault(double throttleRate, double slowRate) {
+			this.throttleRate = throttleRate;
+			this.slowRate = slowRate;
+		}
+	}
+
+	/**
+	 * Message sizes, from a one-line alert to a report with several field-heavy attachments
+	 */
+	enum Payload {
+		SMALL, MEDIUM, LARGE
+	}
+
+	public static void main(String[] args) throws Exception {
+		final long seconds = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_SECONDS;
+		final long latency = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_LATENCY;
+		final Fault[] faults = args.length > 2 ? new Fault[] { Fault.valueOf(args[2]) } : Fault.values();
+
+		final SlackMockServer server = new SlackMockServer().setLatency(latency).start();
+		final SlackConnectionPool pool = new SlackConnectionPool().setMaxConnections(CONCURRENCY[CONCURRENCY.length - 1]);
+		try {
+			System.out.println(String.format("%-9s %-7s %7s %9s %12s %10s %10s %10s %10s", "fault", "payload",
+					"threads", "bytes", "msgs/s", "p50 us", "p99 us", "p999 us", "errors"));
+			for (Fault fault : faults) {
+				server.setThrottleRate(fault.throttleRate, 1).setSlowRate(fault.slowRate, 250);
+				for (Payload payload : Payload.values()) {
+					final SlackMessage message = message(payload);
+					final long bytes = SlackBodyEncoder.encode(message.prepare(), SlackBodyMode.FORM).getSize();
+					for (int threads : CONCURRENCY) {
+						final SlackApi api = new SlackApi(server.getUrl()).setConnectionPool(pool);
+
+						// Warm up the JIT and the pool for a third of the measured time
+						run(api, message, threads, TimeUnit.SECONDS.toNanos(seconds) / 3);
+						final Result result = run(api, message, threads, TimeUnit.SECONDS.toNanos(seconds));
+
+						System.out.println(String.format("%-9s %-7s %7d %9d %12.0f %10.1f %10.1f %10.1f %10d", fault,
+								payload, threads, bytes, result.throughput(), result.percentile(0.50) / 1000.0,
+								result.percentile(0.99) / 1000.0, result.percentile(0.999) / 1000.0, result.errors));
+					}
+				}
+			}
+
+			System.out.println(server);
+			System.out.println(pool);
+		} finally {
+			pool.close();
+			server.stop();
+		}
+	}
+
+	/**
+	 * Call in a closed loop from the given number of threads until the duration is up
+	 */
+	static Result run(final SlackApi api, final SlackMessage message, int threads, long duration)
+			throws InterruptedException {
+		final CountDownLatch start = new CountDownLatch(1);
+		final AtomicLong errors = new AtomicLong();
+		final List<long[]> samples = new ArrayList<long[]>();
+		final int[] counts = new int[threads];
+		final Thread[] callers = new Thread[threads];
+
+		for (int i = 0; i < threads; i++) {
+			final int index = i;
+			callers[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					long[] latencies = new long[1 << 16];
+					int count = 0;
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+
+					final long end = System.nanoTime() + duration;
+					long now;
+					while ((now = System.nanoTime()) < end) {
+						try {
+							api.call(message);
+						} catch (SlackException e) {
+							errors.incrementAndGet();
+							continue;
+						}
+
+						if (count == latencies.length) {
+							latencies = Arrays.copyOf(latencies, count * 2);
+						}
+						latencies[count++] = System.nanoTime() - now;
+					}
+
+					counts[index] = count;
+					synchronized (samples) {
+						samples.add(Arrays.copyOf(latencies, count));
+					}
+				}
+			}, "slack-e2e-" + i);
+			callers[i].start();
+		}
+
+		final long began = System.nanoTime();
+		start.countDown();
+		for (Thread caller : callers) {
+			caller.join();
+		}
+		final long elapsed = System.nanoTime() - began;
+
+		int total = 0;
+		for (int count : counts) {
+			total += count;
+		}
+
+		final long[] all = new long[total];
+		int offset = 0;
+		for (long[] latencies : samples) {
+			System.arraycopy(latencies, 0, all, offset, latencies.length);
+			offset += latencies.length;
+		}
+		Arrays.sort(all);
+
+		return new Result(all, elapsed, errors.get());
+	}
+
+	static SlackMessage message(Payload payload) {
+		switch (payload) {
+		case SMALL:
+			return new SlackMessage("#alerts", "monitor", "Disk usage above 90% on db-1");
+
+		case MEDIUM:
+			return new SlackMessage("#alerts", "monitor", "Disk usage above 90% on db-1")
+					.addAttachments(attachment("db-1", 6, 40));
+
+		default:
+			final SlackMessage message = new SlackMessage("#reports", "monitor", "Nightly capacity report for the *prod* fleet");
+			for (int i = 0; i < 4; i++) {
+				message.addAttachments(attachment("cluster-" + i, 10, 150));
+			}
+			return message;
+		}
+	}
+
+	private static SlackAttachment attachment(String title, int fields, int valueLength) {
+		final SlackAttachment attachment = new SlackAttachment("Capacity of " + title).setTitle(title).setColor("warning")
+				.setText("Usage by volume, sampled every minute & averaged over the last hour");
+
+		final StringBuilder value = new StringBuilder();
+		while (value.length() < valueLength) {
+			value.append("used 91.4% of 2 TB, growing 1.2 GB/h; ");
+		}
+
+		for (int i = 0; i < fields; i++) {
+			attachment.addFields(new SlackField().setTitle("/dev/sd" + (char) ('a' + i))
+					.setValue(value.substring(0, valueLength)).setShorten(true));
+		}
+
+		return attachment;
+	}
+
+	static class Result {
+		final long[] latencies;
+		final long elapsed;
+		final long errors;
+
+		Result(long[] latencies, long elapsed, long errors) {
+			this.latencies = latencies;
+			this.elapsed = elapsed;
+			this.errors = errors;
+		}
+
+		/**
+		 * @return successful calls per second
+		 */
+		double throughput() {
+			return latencies.length * 1e9 / elapsed;
+		}
+
+		/**
+		 * @return nanoseconds under which the given share of successful calls completed
+		 */
+		long percentile(double share) {
+			if (latencies.length == 0) {
+				return 0;
+			}
+
+			final int index = (int) Math.ceil(share * latencies.length) - 1;
+			return latencies[Math.max(0, Math.min(latencies.length - 1, index))];
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package net.jonahmiller5.integrations.slack;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Nanoseconds to escape and encode one large SlackMCOText, the cost that dominates messages
+ * carrying log excerpts
+ *
+ * gson renders the text object through its tree; stream writes it with a pooled SlackJsonWriter,
+ * which copies runs of plain ASCII in bulk and takes escapes and non-ASCII chars one at a time.
+ * The kinds of text go from nearly all bulk copies to none at all.
+ *
+ * Built and run as SlackSerializationBenchmark describes, with org.openjdk.jmh.Main SlackEscapeBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SlackEscapeBenchmark {
+
+	public enum Kind {
+		/** English prose, nothing to escape but the odd quote */
+		PROSE,
+		/** a stack trace in a code block: a newline and a tab every line, quoted values */
+		LOG,
+		/** French prose, an accented letter every few words */
+		ACCENTED,
+		/** Chinese, no ASCII runs at all */
+		CJK
+	}
+
+	@Param
+	public Kind kind;
+
+	@Param({ "200", "3000", "12000" })
+	public int length;
+
+	private SlackMCOText text;
+
+	@Setup
+	public void setUp() {
+		text = new SlackMCOText("mrkdwn", text(kind, length));
+	}
+
+	@Benchmark
+	public String gson() {
+		return text.toJson().toString();
+	}
+
+	@Benchmark
+	public int stream() throws IOException {
+		final SlackJsonWriter json = SlackJsonWriter.acquire();
+		try {
+			text.writeJson(json);
+			return json.size();
+		} finally {
+			json.release();
+		}
+	}
+
+	static String text(Kind kind, int length) {
+		final String line;
+		switch (kind) {
+		case PROSE:
+			line = "The nightly export finished late again because the \"orders\" table grew past what the job "
+					+ "was sized for, so the retry kicked in and the report went out at nine. ";
+			break;
+		case LOG:
+			line = "\tat com.example.orders.ExportJob.run(ExportJob.java:214) - state=\"RETRYING\" attempt=3\n";
+			break;
+		case ACCENTED:
+			line = "L'export de nuit s'est terminé en retard : la table « commandes » a dépassé la taille prévue, "
+					+ "le rapport est parti à neuf heures. ";
+			break;
+		default:
+			line = "夜间导出再次延迟完成，因为订单表超出了任务的预期规模，重试后报告在九点发出。";
+			break;
+		}
+
+		final StringBuilder result = new StringBuilder(length + line.length());
+		while (result.length() < length) {
+			result.append(line);
+		}
+		result.setLength(length);
+
+		return result.toString();
+	}
+}
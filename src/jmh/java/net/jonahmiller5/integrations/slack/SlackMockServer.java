@@ -0,0 +1,289 @@
+package net.jonahmiller5.integrations.slack;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Embedded webhook that answers like Slack, for benchmarks and local runs
+ *
+ * Accepts payload=&lt;urlencoded JSON&gt; form posts and application/json posts. Bodies that are
+ * not a JSON object answer 400 invalid_payload, objects with neither text nor blocks 400 no_text,
+ * other methods 405. A configurable share of posts can be answered 429 rate_limited with a
+ * Retry-After header, or held back as slow responses, on top of a base latency.
+ *
+ * The JDK server leaves Nagle's algorithm on, which holds every small response for the client's
+ * delayed ACK and puts a ~40 ms floor under each call. Loading this class turns it off, so it
+ * must happen before the first HttpServer is created in the JVM.
+ *
+ * Usage: new SlackApi(new SlackMockServer().setLatency(20).start().getUrl())
+ */
+public class SlackMockServer {
+
+	private static final String POST = "POST";
+	private static final String PAYLOAD = "payload=";
+	private static final String CONTENT_TYPE = "Content-Type";
+	private static final String APPLICATION_JSON = "application/json";
+	private static final String RETRY_AFTER = "Retry-After";
+	private static final String TEXT = "text";
+	private static final String BLOCKS = "blocks";
+	private static final String NODELAY = "sun.net.httpserver.nodelay";
+
+	static {
+		if (System.getProperty(NODELAY) == null) {
+			System.setProperty(NODELAY, "true");
+		}
+	}
+
+	private final AtomicLong received = new AtomicLong();
+	private final AtomicLong accepted = new AtomicLong();
+	private final AtomicLong rejected = new AtomicLong();
+	private final AtomicLong throttled = new AtomicLong();
+	private final AtomicLong slowed = new AtomicLong();
+	private final AtomicLong bytesReceived = new AtomicLong();
+
+	private volatile long latency;
+	private volatile double throttleRate;
+	private volatile long retryAfter = 1;
+	private volatile double slowRate;
+	private volatile long slowLatency;
+
+	private HttpServer server;
+	private ExecutorService threads;
+
+	/**
+	 * @param latency
+	 *            milliseconds every post is held before it is answered
+	 * @return SlackMockServer
+	 */
+	public SlackMockServer setLatency(long latency) {
+		this.latency = latency;
+
+		return this;
+	}
+
+	/**
+	 * @param rate
+	 *            share of posts, 0 to 1, answered 429 rate_limited
+	 * @param retryAfter
+	 *            seconds sent as the Retry-After header
+	 * @return SlackMockServer
+	 */
+	public SlackMockServer setThrottleRate(double rate, long retryAfter) {
+		this.throttleRate = rate;
+		this.retryAfter = retryAfter;
+
+		return this;
+	}
+
+	/**
+	 * @param rate
+	 *            share of posts, 0 to 1, held for the slow latency instead of the base latency
+	 * @param slowLatency
+	 *            milliseconds a slow post is held
+	 * @return SlackMockServer
+	 */
+	public SlackMockServer setSlowRate(double rate, long slowLatency) {
+		this.slowRate = rate;
+		this.slowLatency = slowLatency;
+
+		return this;
+	}
+
+	/**
+	 * Listen on an ephemeral loopback port
+	 */
+	public SlackMockServer start() throws IOException {
+		final AtomicInteger count = new AtomicInteger();
+		threads = Executors.newCachedThreadPool(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				final Thread thread = new Thread(runnable, "slack-mock-" + count.getAndIncrement());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 4096);
+		server.setExecutor(threads);
+		server.createContext("/", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				try {
+					answer(exchange);
+				} finally {
+					exchange.close();
+				}
+			}
+		});
+		server.start();
+
+		return this;
+	}
+
+	private void answer(HttpExchange exchange) throws IOException {
+		received.incrementAndGet();
+		final byte[] body = read(exchange.getRequestBody());
+		bytesReceived.addAndGet(body.length);
+
+		if (!POST.equals(exchange.getRequestMethod())) {
+			rejected.incrementAndGet();
+			respond(exchange, 405, "invalid_method", null);
+			return;
+		}
+
+		final String error = validate(exchange.getRequestHeaders().getFirst(CONTENT_TYPE), body);
+		if (error != null) {
+			rejected.incrementAndGet();
+			respond(exchange, 400, error, null);
+			return;
+		}
+
+		final ThreadLocalRandom random = ThreadLocalRandom.current();
+		if (throttleRate > 0 && random.nextDouble() < throttleRate) {
+			throttled.incrementAndGet();
+			respond(exchange, 429, "rate_limited", Long.toString(retryAfter));
+			return;
+		}
+
+		long delay = latency;
+		if (slowRate > 0 && random.nextDouble() < slowRate) {
+			slowed.incrementAndGet();
+			delay = slowLatency;
+		}
+
+		if (delay > 0) {
+			LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(delay));
+		}
+
+		accepted.incrementAndGet();
+		respond(exchange, 200, "ok", null);
+	}
+
+	/**
+	 * @return Slack's error code for the body, or null if it is a valid message
+	 */
+	private static String validate(String contentType, byte[] body) {
+		final String text = new String(body, StandardCharsets.UTF_8);
+		final String json;
+		if (contentType != null && contentType.startsWith(APPLICATION_JSON)) {
+			json = text;
+		} else if (text.startsWith(PAYLOAD)) {
+			try {
+				json = URLDecoder.decode(text.substring(PAYLOAD.length()), StandardCharsets.UTF_8);
+			} catch (IllegalArgumentException e) {
+				return "invalid_payload";
+			}
+		} else {
+			return "invalid_payload";
+		}
+
+		final JsonElement message;
+		try {
+			message = JsonParser.parseString(json);
+		} catch (RuntimeException e) {
+			return "invalid_payload";
+		}
+
+		if (!message.isJsonObject()) {
+			return "invalid_payload";
+		}
+
+		final JsonObject object = message.getAsJsonObject();
+		if (!object.has(TEXT) && !object.has(BLOCKS)) {
+			return "no_text";
+		}
+
+		return null;
+	}
+
+	private static byte[] read(InputStream in) throws IOException {
+		final ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+		final byte[] buffer = new byte[8192];
+		int read;
+		while ((read = in.read(buffer)) >= 0) {
+			body.write(buffer, 0, read);
+		}
+
+		return body.toByteArray();
+	}
+
+	private static void respond(HttpExchange exchange, int status, String body, String retryAfter) throws IOException {
+		final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		if (retryAfter != null) {
+			exchange.getResponseHeaders().set(RETRY_AFTER, retryAfter);
+		}
+
+		exchange.sendResponseHeaders(status, bytes.length);
+		final OutputStream out = exchange.getResponseBody();
+		out.write(bytes);
+		out.close();
+	}
+
+	public void stop() {
+		if (server != null) {
+			server.stop(0);
+		}
+
+		if (threads != null) {
+			threads.shutdownNow();
+		}
+	}
+
+	public String getUrl() {
+		return "http://127.0.0.1:" + server.getAddress().getPort() + "/services/T000/B000/XXXX";
+	}
+
+	public long getReceivedCount() {
+		return received.get();
+	}
+
+	public long getAcceptedCount() {
+		return accepted.get();
+	}
+
+	/**
+	 * @return posts answered 400 or 405
+	 */
+	public long getRejectedCount() {
+		return rejected.get();
+	}
+
+	public long getThrottledCount() {
+		return throttled.get();
+	}
+
+	public long getSlowedCount() {
+		return slowed.get();
+	}
+
+	public long getBytesReceived() {
+		return bytesReceived.get();
+	}
+
+	@Override
+	public String toString() {
+		return "SlackMockServer{" + "received=" + received + ", accepted=" + accepted + ", rejected=" + rejected
+				+ ", throttled=" + throttled + ", slowed=" + slowed + '}';
+	}
+}
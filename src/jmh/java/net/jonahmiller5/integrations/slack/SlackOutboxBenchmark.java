@@ -0,0 +1,100 @@
+package net.jonahmiller5.integrations.slack;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Messages per second into a SlackOutbox against an in-memory queue doing the same
+ * serialization
+ *
+ * durable waits for every message to be on disk, pipelined only for the last of each batch,
+ * which is what lets group commit share one fsync between many messages. The outbox posts to a
+ * closed local port, so delivery stays in backoff and does not compete for the disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Threads(8)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class SlackOutboxBenchmark {
+
+	private static final int BATCH = 1000;
+
+	private File directory;
+	private SlackOutbox outbox;
+	private BlockingQueue<SlackBody> queue;
+	private SlackMessage message;
+
+	@Setup
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("slack-outbox").toFile();
+		outbox = new SlackOutbox(new SlackApi("http://127.0.0.1:9/services/T0/B0/X"), directory);
+		queue = new LinkedBlockingQueue<SlackBody>();
+		message = new SlackMessage("#alerts", "benchmark", "Disk usage above 90% on db-1");
+	}
+
+	@Setup(Level.Iteration)
+	public void clearQueue() {
+		queue.clear();
+	}
+
+	@TearDown
+	public void tearDown() throws InterruptedException {
+		outbox.close(TimeUnit.SECONDS.toMillis(10));
+		final File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		directory.delete();
+	}
+
+	@Benchmark
+	public Long durable() {
+		return outbox.submit(message).join();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public Long pipelined() {
+		CompletableFuture<Long> last = null;
+		for (int i = 0; i < BATCH; i++) {
+			last = outbox.submit(message);
+		}
+
+		return last.join();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int memory() throws IOException {
+		for (int i = 0; i < BATCH; i++) {
+			queue.offer(SlackBodyEncoder.encode(message.prepare(), SlackBodyMode.JSON));
+		}
+
+		return queue.size();
+	}
+}
@@ -0,0 +1,336 @@
+package net.jonahmiller5.integrations.slack;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Nanoseconds and bytes allocated per message to turn a SlackMessage into what goes on the wire
+ *
+ * prepare builds the Gson tree, json also renders it to a string, and form and body also encode
+ * it the way SlackApi did before messages could write themselves. stream, streamForm and
+ * streamBody produce the same bytes through SlackJsonWriter without the tree, the last two from
+ * pooled UTF-8 buffers with pre-encoded keys, which is what SlackApi posts now. postTree and
+ * post write the Gson and the pooled bodies to a stream that discards them, as SlackApi does to a
+ * connection; after warm-up post allocates only a few small objects per message, while the Gson
+ * path allocates about ten times the body's size. memoized is streamBody for a message set to
+ * keep its body, as a notice sent over and over would be.
+ *
+ * Each shape stresses a different part of the model, from a one-line text message up to a
+ * 50-block payload using every block and element type.
+ *
+ * Run with the GC profiler to see allocation next to time; gc.alloc.rate.norm is bytes per op.
+ *
+ * The benchmarks are not part of a build, so they are compiled by hand from the project root.
+ * The library needs Lombok on the processor path, and the benchmarks need the JMH annotation
+ * processor, which writes the generated harness classes and META-INF/BenchmarkList next to
+ * them. The jars are jmh-core and jmh-generator-annprocess 1.37 with JMH's own dependencies
+ * jopt-simple 5.0.4 and commons-math3 3.6.1, gson 2.13 and lombok 1.18, all from Maven Central,
+ * saved in lib/ without their version numbers:
+ *
+ * javac -d target/classes -cp lib/gson.jar:lib/lombok.jar -processorpath lib/lombok.jar $(find src/main/java -name '*.java')
+ *
+ * javac -d target/jmh -cp target/classes:lib/gson.jar:lib/jmh-core.jar \
+ *   -processorpath lib/jmh-generator-annprocess.jar:lib/jmh-core.jar $(find src/jmh/java -name '*.java')
+ *
+ * java -cp target/jmh:target/classes:lib/gson.jar:lib/jmh-core.jar:lib/jopt-simple.jar:lib/commons-math3.jar \
+ *   org.openjdk.jmh.Main SlackSerializationBenchmark -prof gc
+ *
+ * The other benchmarks run the same way, with their own name in place of this one's.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SlackSerializationBenchmark {
+
+	private static final String PLAIN_TEXT = "plain_text";
+	private static final String MRKDWN = "mrkdwn";
+
+	/**
+	 * Message shapes, smallest first
+	 */
+	public enum Shape {
+		/** text only */
+		TINY,
+		/** one attachment with every field set, ten fields and three actions */
+		ATTACHMENT,
+		/** a section with ten fields and a button accessory */
+		SECTION,
+		/** an actions block with a button, a date picker and three kinds of select menu */
+		ACTIONS,
+		/** a section with a static select menu holding the maximum of 100 options */
+		STATIC_SELECT,
+		/** 50 blocks of every type plus two attachments */
+		KITCHEN_SINK
+	}
+
+	@Param
+	public Shape shape;
+
+	private static final OutputStream NOWHERE = new OutputStream() {
+		@Override
+		public void write(int b) {
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+		}
+	};
+
+	private SlackMessage message;
+	private SlackMessage memoizedMessage;
+
+	@Setup
+	public void setUp() {
+		message = message(shape);
+		memoizedMessage = message(shape).setMemoized(true);
+	}
+
+	@Benchmark
+	public JsonObject prepare() {
+		return message.prepare();
+	}
+
+	@Benchmark
+	public String json() {
+		return message.prepare().toString();
+	}
+
+	@Benchmark
+	public SlackBody form() throws IOException {
+		return SlackBodyEncoder.encode(message.prepare(), SlackBodyMode.FORM);
+	}
+
+	@Benchmark
+	public SlackBody body() throws IOException {
+		return SlackBodyEncoder.encode(message.prepare(), SlackBodyMode.JSON);
+	}
+
+	@Benchmark
+	public String stream() throws IOException {
+		final StringWriter out = new StringWriter(1024);
+		message.writeJson(new SlackJsonWriter(out));
+		return out.toString();
+	}
+
+	@Benchmark
+	public SlackBody streamForm() throws IOException {
+		return SlackBodyEncoder.encode(message, SlackBodyMode.FORM);
+	}
+
+	@Benchmark
+	public SlackBody streamBody() throws IOException {
+		return SlackBodyEncoder.encode(message, SlackBodyMode.JSON);
+	}
+
+	@Benchmark
+	public SlackBody memoized() throws IOException {
+		return memoizedMessage.encode(SlackBodyMode.JSON);
+	}
+
+	@Benchmark
+	public long postTree() throws IOException {
+		return SlackBodyEncoder.write(message.prepare(), SlackBodyMode.JSON, NOWHERE).getSize();
+	}
+
+	@Benchmark
+	public long post() throws IOException {
+		return SlackBodyEncoder.write(message, SlackBodyMode.JSON, NOWHERE).getSize();
+	}
+
+	static SlackMessage message(Shape shape) {
+		final SlackMessage message = new SlackMessage("#deploys", "release-bot", "Deploy of *api* 4.12.0 finished");
+		message.setIcon(":rocket:");
+
+		switch (shape) {
+		case TINY:
+			return new SlackMessage("Disk usage above 90% on db-1");
+
+		case ATTACHMENT:
+			return message.addAttachments(attachment(0));
+
+		case SECTION:
+			return message.addBlocks(section(0));
+
+		case ACTIONS:
+			return message.addBlocks(actions(0));
+
+		case STATIC_SELECT:
+			final SlackBlockSection section = new SlackBlockSection(text(PLAIN_TEXT, "Roll back to which build?"));
+			section.updateAccessory(staticSelect(0, 100));
+			return message.addBlocks(section);
+
+		default:
+			for (int i = 0; i < 50; i++) {
+				message.addBlocks(block(i));
+			}
+			return message.addAttachments(attachment(0)).addAttachments(attachment(1));
+		}
+	}
+
+	/**
+	 * Cycle through every block type, each with a block id
+	 */
+	private static SlackBlock block(int i) {
+		final SlackBlock block;
+		switch (i % 8) {
+		case 0:
+			block = section(i);
+			break;
+
+		case 1:
+			block = new SlackBlockDivider();
+			break;
+
+		case 2:
+			block = actions(i);
+			break;
+
+		case 3:
+			final SlackBlockContext context = new SlackBlockContext();
+			context.addElement(new SlackBlockElementImage("https://example.com/avatars/" + i + ".png", "author"));
+			context.addElement(text(MRKDWN, "Triggered by <@U0" + i + "> from `main` at 14:0" + (i % 10)));
+			block = context;
+			break;
+
+		case 4:
+			final SlackBlockImage image = new SlackBlockImage("https://example.com/graphs/latency-" + i + ".png",
+					"p99 latency over the last hour");
+			image.updateTitle(text(PLAIN_TEXT, "Latency, region " + i));
+			block = image;
+			break;
+
+		case 5:
+			final SlackBlockSection select = new SlackBlockSection(text(PLAIN_TEXT, "Pick a canary host"));
+			select.updateAccessory(staticSelect(i, 20));
+			block = select;
+			break;
+
+		case 6:
+			block = new SlackBlockFile("release-notes-" + i);
+			break;
+
+		default:
+			final SlackBlockSection section = new SlackBlockSection(text(PLAIN_TEXT, "Dashboard for shard " + i));
+			section.updateAccessory(new SlackBlockElementImage("https://example.com/thumbs/" + i + ".png", "thumbnail"));
+			block = section;
+			break;
+		}
+
+		block.updateBlockId("block-" + i);
+		return block;
+	}
+
+	private static SlackBlockSection section(int i) {
+		final SlackBlockSection section = new SlackBlockSection(
+				text(PLAIN_TEXT, "Build " + i + " passed 1,284 tests in 6m 12s — 3 flaky, 0 failed"));
+		for (int j = 0; j < 10; j++) {
+			section.addField(text(MRKDWN, "*Stage " + j + "*\n\"compile\" took " + (j * 7 + 3) + "s"));
+		}
+
+		final SlackBlockElementButton button = new SlackBlockElementButton(text(PLAIN_TEXT, "Open build"), "open-" + i);
+		button.updateUrl("https://ci.example.com/builds/" + i + "?tab=tests&filter=flaky");
+		section.updateAccessory(button);
+
+		return section;
+	}
+
+	private static SlackBlockActions actions(int i) {
+		final SlackBlockActions actions = new SlackBlockActions();
+
+		final SlackBlockElementButton approve = new SlackBlockElementButton(text(PLAIN_TEXT, "Approve"), "approve-" + i);
+		approve.updateValue("release-" + i);
+		approve.updateStyle("primary");
+		approve.updateConfirm(confirm());
+		actions.addElement(approve);
+
+		final SlackBlockElementDatePicker date = new SlackBlockElementDatePicker("schedule-" + i);
+		date.updatePlaceholder(text(PLAIN_TEXT, "Schedule for"));
+		date.updateInitialDate("2019-08-01");
+		actions.addElement(date);
+
+		final SlackBlockElementSelectMenuUsers users = new SlackBlockElementSelectMenuUsers(
+				text(PLAIN_TEXT, "Assign reviewer"), "reviewer-" + i);
+		users.updateInitialUser("U0G9QF9C6");
+		actions.addElement(users);
+
+		final SlackBlockElementSelectMenuChannels channels = new SlackBlockElementSelectMenuChannels(
+				text(PLAIN_TEXT, "Announce in"), "channel-" + i);
+		channels.updateInitialChannel("C012AB3CD");
+		actions.addElement(channels);
+
+		actions.addElement(staticSelect(i, 5));
+
+		return actions;
+	}
+
+	private static SlackBlockElementSelectMenuStatic staticSelect(int i, int options) {
+		final SlackBlockElementSelectMenuStatic select = new SlackBlockElementSelectMenuStatic(
+				text(PLAIN_TEXT, "Choose a build"), "build-" + i);
+		for (int j = 0; j < options; j++) {
+			select.addOption(new SlackMCOOption(text(PLAIN_TEXT, "api 4.11." + j + " (" + (j * 3) + " commits)"),
+					"build-4.11." + j));
+		}
+
+		return select;
+	}
+
+	private static SlackMCOConfirm confirm() {
+		return new SlackMCOConfirm(text(PLAIN_TEXT, "Are you sure?"),
+				text(MRKDWN, "This ships to *all* regions & can't be undone."), text(PLAIN_TEXT, "Ship it"),
+				text(PLAIN_TEXT, "Stop"));
+	}
+
+	private static SlackAttachment attachment(int i) {
+		final SlackAttachment attachment = new SlackAttachment("Capacity report " + i)
+				.setCallbackId("capacity-" + i)
+				.setPretext("Nightly capacity report")
+				.setText("Usage by volume, sampled every minute & averaged over the last hour")
+				.setColor("warning")
+				.setAuthorName("monitor")
+				.setAuthorLink("https://example.com/monitor")
+				.setAuthorIcon("https://example.com/monitor.png")
+				.setTitle("cluster-" + i)
+				.setTitleLink("https://example.com/clusters/" + i)
+				.setImageUrl("https://example.com/graphs/capacity-" + i + ".png")
+				.setThumbUrl("https://example.com/thumbs/capacity-" + i + ".png")
+				.setFooter("Slack API")
+				.setFooterIcon("https://example.com/footer.png")
+				.setTimestamp(1564444800L)
+				.addMarkdownAttribute("text")
+				.addMarkdownAttribute("pretext");
+
+		for (int j = 0; j < 10; j++) {
+			attachment.addFields(new SlackField().setTitle("/dev/sd" + (char) ('a' + j))
+					.setValue("used 91.4% of 2 TB, growing 1.2 GB/h").setShorten(true));
+		}
+
+		for (int j = 0; j < 3; j++) {
+			attachment.addAction(new SlackAction("expand-" + j, "Expand volume " + j, SlackActionType.BUTTON, "sd" + j));
+		}
+
+		return attachment;
+	}
+
+	private static SlackMCOText text(String type, String text) {
+		return new SlackMCOText(type, text);
+	}
+}
@@ -0,0 +1,97 @@
+package net.jonahmiller5.integrations.slack;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Nanoseconds and bytes allocated per alert body, built from the model every time against
+ * rendered from a SlackTemplate
+ *
+ * The alert is the usual fixed shape, a title, a section with fields and a button, a context
+ * line, differing only in service name, error count and link. build makes the blocks with the
+ * values and encodes them; render splices the values into the template's encoded bytes, which
+ * allocates the body and little else.
+ *
+ * Built and run as SlackSerializationBenchmark describes, with org.openjdk.jmh.Main SlackTemplateBenchmark -prof gc
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SlackTemplateBenchmark {
+
+	private static final String PLAIN_TEXT = "plain_text";
+	private static final String MRKDWN = "mrkdwn";
+
+	private SlackTemplate template;
+	private Map<String, Object> values;
+	private int count;
+
+	@Setup
+	public void setUp() {
+		final Map<String, Object> placeholders = new HashMap<String, Object>();
+		placeholders.put("service", "{{service}}");
+		placeholders.put("count", "{{count}}");
+		placeholders.put("link", "{{link}}");
+		template = new SlackTemplate(alert(placeholders));
+
+		values = new HashMap<String, Object>();
+		values.put("service", "checkout-api");
+		values.put("link", "https://grafana.example.com/d/checkout?from=now-1h");
+	}
+
+	@Benchmark
+	public SlackBody build() throws IOException {
+		values.put("count", ++count);
+		return SlackBodyEncoder.encode(alert(values), SlackBodyMode.JSON);
+	}
+
+	@Benchmark
+	public SlackBody render() throws IOException {
+		values.put("count", ++count);
+		return SlackBodyEncoder.encode(template, values, SlackBodyMode.JSON);
+	}
+
+	static SlackMessage alert(Map<String, Object> values) {
+		final String service = String.valueOf(values.get("service"));
+		final String count = String.valueOf(values.get("count"));
+		final String link = String.valueOf(values.get("link"));
+
+		final SlackMessage message = new SlackMessage("#alerts", "alert-bot", service + " is failing");
+		message.setIcon(":rotating_light:");
+		message.addBlocks(new SlackBlockSection(new SlackMCOText(PLAIN_TEXT, service + " error rate above threshold")));
+
+		final SlackBlockSection section = new SlackBlockSection(new SlackMCOText(PLAIN_TEXT,
+				service + " answered " + count + " requests with a 5xx in the last 5 minutes"));
+		section.addField(new SlackMCOText(MRKDWN, "*Service*\n" + service));
+		section.addField(new SlackMCOText(MRKDWN, "*Errors*\n" + count));
+		section.addField(new SlackMCOText(MRKDWN, "*Severity*\nhigh"));
+		section.addField(new SlackMCOText(MRKDWN, "*Runbook*\n<https://wiki.example.com/runbooks/5xx|5xx runbook>"));
+		final SlackBlockElementButton button = new SlackBlockElementButton(new SlackMCOText(PLAIN_TEXT, "Dashboard"),
+				"dashboard");
+		button.updateUrl(link);
+		section.updateAccessory(button);
+		message.addBlocks(section);
+
+		final SlackBlockContext context = new SlackBlockContext();
+		context.addElement(new SlackMCOText(MRKDWN, "Sent by alertmanager for <" + link + "|" + service + ">"));
+		message.addBlocks(context);
+
+		return message;
+	}
+}
@@ -1,5 +1,7 @@
 package net.jonahmiller5.integrations.slack;
 
+import java.io.IOException;
+
 import com.google.gson.JsonObject;
 
 /**
@@ -89,4 +91,22 @@ public class SlackAction {
 
 		return data;
 	}
+
+	public void writeJson(SlackJsonWriter out) throws IOException {
+		out.beginObject();
+		out.name(SlackJsonKey.NAME).value(name);
+		out.name(SlackJsonKey.TEXT).value(text);
+
+		if (type != null) {
+			out.name(SlackJsonKey.TYPE).value(type.getCode());
+		}
+
+		out.name(SlackJsonKey.VALUE).value(value);
+
+		if (style != null) {
+			out.name(SlackJsonKey.STYLE).value(style.getCode());
+		}
+
+		out.endObject();
+	}
 }
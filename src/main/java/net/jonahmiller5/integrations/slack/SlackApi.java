@@ -1,26 +1,45 @@
 package net.jonahmiller5.integrations.slack;
 
-import com.google.gson.JsonObject;
-
-import java.io.BufferedReader;
-import java.io.DataOutputStream;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.MalformedURLException;
 import java.net.Proxy;
 import java.net.URL;
-import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
 
 public class SlackApi {
 
-	private static final String POST = "POST";
-	private static final String PAYLOAD = "payload=";
-	private static final String UTF_8 = "UTF-8";
+	private static final SlackTransport DIRECT = new SlackUrlConnectionTransport();
+	private static final SlackDeliveryListener[] NO_LISTENERS = new SlackDeliveryListener[0];
+	private static final AtomicLong IDS = new AtomicLong();
 
 	private final String service;
+	private final String host;
 	private final int timeout;
 	private final Proxy proxy;
 
+	private volatile SlackHttpClientTransport asyncTransport;
+	private volatile SlackTransport transport;
+	private volatile SlackRateLimiter rateLimiter;
+	private volatile SlackRetryPolicy retryPolicy;
+	private volatile SlackBodyMode bodyMode = SlackBodyMode.FORM;
+	private volatile SlackCircuitBreaker circuitBreaker;
+	private volatile SlackDeduplicator deduplicator;
+	private volatile SlackMetrics metrics;
+	private volatile SlackDeliveryListener[] listeners = NO_LISTENERS;
+
+	private final AtomicLong bytesSent = new AtomicLong();
+	private final AtomicLong bytesSaved = new AtomicLong();
+
 	public SlackApi(String service) {
 		this(service, 5000);
 	}
@@ -48,56 +67,882 @@ public class SlackApi {
 		}
 
 		this.service = service;
+		this.host = host(service);
+
+	}
+
+	private static String host(String service) {
+		try {
+			return new URL(service).getHost();
+		} catch (MalformedURLException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Send through a keep-alive connection pool instead of opening a new connection per message.
+	 * The pool may be shared between SlackApi instances. Same as setTransport(connectionPool).
+	 * 
+	 * @param connectionPool
+	 *            pool to use, or null to go back to one connection per message
+	 * @return SlackApi
+	 */
+	public SlackApi setConnectionPool(SlackConnectionPool connectionPool) {
+		return this.setTransport(connectionPool);
+	}
+
+	/**
+	 * @return the transport if it is a connection pool, else null
+	 */
+	public SlackConnectionPool getConnectionPool() {
+		final SlackTransport transport = this.transport;
+		return transport instanceof SlackConnectionPool ? (SlackConnectionPool) transport : null;
+	}
+
+	/**
+	 * Carry posts over another transport, e.g. a SlackStubTransport to test or benchmark without
+	 * the network. Rate limits, retries, circuit breaking and body encoding stay the same.
+	 * 
+	 * @param transport
+	 *            transport for blocking and async posts alike, or null for the defaults: an
+	 *            HttpURLConnection per blocking post and one HttpClient for callAsync
+	 * @return SlackApi
+	 */
+	public SlackApi setTransport(SlackTransport transport) {
+		this.transport = transport;
+
+		return this;
+	}
+
+	public SlackTransport getTransport() {
+		return transport;
+	}
+
+	/**
+	 * Limit how fast messages are posted to this webhook. The limiter is keyed by webhook URL, so
+	 * one limiter can be shared by every SlackApi in a service.
+	 * 
+	 * @param rateLimiter
+	 *            limiter to use, or null to send as fast as callers push
+	 * @return SlackApi
+	 */
+	public SlackApi setRateLimiter(SlackRateLimiter rateLimiter) {
+		this.rateLimiter = rateLimiter;
+
+		return this;
+	}
+
+	public SlackRateLimiter getRateLimiter() {
+		return rateLimiter;
+	}
+
+	/**
+	 * Retry posts that failed for transient reasons (429, 5xx, IO errors)
+	 * 
+	 * @param retryPolicy
+	 *            policy to use, or null to give up after the first failure
+	 * @return SlackApi
+	 */
+	public SlackApi setRetryPolicy(SlackRetryPolicy retryPolicy) {
+		this.retryPolicy = retryPolicy;
+
+		return this;
+	}
+
+	public SlackRetryPolicy getRetryPolicy() {
+		return retryPolicy;
+	}
+
+	/**
+	 * Fail posts at once while this webhook's circuit is open or quarantined, instead of paying a
+	 * round trip to a dead endpoint. The breaker is keyed by webhook URL and may be shared.
+	 * 
+	 * @param circuitBreaker
+	 *            breaker to use, or null to always post
+	 * @return SlackApi
+	 */
+	public SlackApi setCircuitBreaker(SlackCircuitBreaker circuitBreaker) {
+		this.circuitBreaker = circuitBreaker;
+
+		return this;
+	}
+
+	public SlackCircuitBreaker getCircuitBreaker() {
+		return circuitBreaker;
+	}
+
+	/**
+	 * Drop repeats of a message sent to this webhook within the deduplicator's TTL. Suppressed
+	 * messages are not posted: call returns at once and callAsync completes with null.
+	 * 
+	 * @param deduplicator
+	 *            deduplicator to use, or null to send every message
+	 * @return SlackApi
+	 */
+	public SlackApi setDeduplicator(SlackDeduplicator deduplicator) {
+		this.deduplicator = deduplicator;
+
+		return this;
+	}
+
+	public SlackDeduplicator getDeduplicator() {
+		return deduplicator;
+	}
+
+	/**
+	 * Record the latency, body size and outcome of every post, and every retry, in a metrics
+	 * registry. The registry may be shared between SlackApi instances.
+	 * 
+	 * @param metrics
+	 *            registry to record in, or null to record nothing
+	 * @return SlackApi
+	 */
+	public SlackApi setMetrics(SlackMetrics metrics) {
+		this.metrics = metrics;
+
+		return this;
+	}
+
+	public SlackMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Tell a listener about every stage of every message sent through this instance from now on
+	 * 
+	 * @return SlackApi
+	 */
+	public synchronized SlackApi addDeliveryListener(SlackDeliveryListener listener) {
+		if (listener == null) {
+			throw new IllegalArgumentException("Missing Listener @ SlackApi");
+		}
+
+		final SlackDeliveryListener[] result = Arrays.copyOf(listeners, listeners.length + 1);
+		result[listeners.length] = listener;
+		this.listeners = result;
+
+		return this;
+	}
+
+	public synchronized SlackApi removeDeliveryListener(SlackDeliveryListener listener) {
+		final List<SlackDeliveryListener> result = new ArrayList<SlackDeliveryListener>(Arrays.asList(listeners));
+		if (result.remove(listener)) {
+			this.listeners = result.isEmpty() ? NO_LISTENERS : result.toArray(NO_LISTENERS);
+		}
+
+		return this;
+	}
+
+	public List<SlackDeliveryListener> getDeliveryListeners() {
+		return Arrays.asList(listeners.clone());
+	}
+
+	/**
+	 * Post messages as a form body (the default) or as raw JSON. JSON bodies skip the URL
+	 * encoding, which inflates Block Kit messages by 30 to 200%.
+	 * 
+	 * @param bodyMode
+	 *            body mode, null for FORM
+	 * @return SlackApi
+	 */
+	public SlackApi setBodyMode(SlackBodyMode bodyMode) {
+		this.bodyMode = bodyMode == null ? SlackBodyMode.FORM : bodyMode;
+
+		return this;
+	}
+
+	public SlackBodyMode getBodyMode() {
+		return bodyMode;
+	}
+
+	/**
+	 * @return bytes of request bodies Slack has answered, over the lifetime of this instance
+	 */
+	public long getBytesSent() {
+		return bytesSent.get();
+	}
 
+	/**
+	 * @return bytes saved over posting the same messages as form bodies, 0 in FORM mode
+	 */
+	public long getBytesSaved() {
+		return bytesSaved.get();
 	}
 
 	/**
 	 * Prepare Message and send to Slack
+	 * 
+	 * With a rate limiter set, the call waits for, fails on, or defers past the webhook's limit
+	 * according to the limiter's SlackRateLimitPolicy. Deferred messages are sent through
+	 * callAsync, retries included, and the call only throws if the post is refused outright, e.g.
+	 * for being past the limiter's max deferral; use callAsync directly to observe their outcome.
+	 * 
+	 * With a retry policy set, transient failures are retried before the call returns, so the
+	 * calling thread is held through the backoff. Use callAsync or a SlackDispatcher to keep
+	 * threads free while a retry is pending.
 	 */
 	public void call(SlackMessage message) {
-		if (message != null) {
-			this.send(message.prepare());
+		if (message == null) {
+			return;
+		}
+
+		final long id = this.track();
+		if (this.deduplicator == null && !this.isDeferring()) {
+			this.retry(id, attempt -> this.callOnce(message, id, attempt));
+			return;
+		}
+
+		// Encoded once, for the fingerprint and for every attempt
+		final SlackBody body = this.encode(message, id);
+		if (this.isDuplicate(body)) {
+			this.dropped(id, SlackDropReason.DUPLICATE, null);
+			return;
+		}
+
+		if (!this.isDeferring()) {
+			this.retry(id, attempt -> this.callOnce(body, id, attempt));
+			return;
+		}
+
+		final CompletableFuture<SlackResponse> deferred = this.sendAsync(body, id);
+		if (deferred.isCompletedExceptionally()) {
+			try {
+				deferred.join();
+			} catch (CompletionException e) {
+				throw e.getCause() instanceof SlackException ? (SlackException) e.getCause()
+						: new SlackException(e.getCause());
+			}
 		}
 	}
 
-	private String send(JsonObject message) {
-		HttpURLConnection connection = null;
+	/**
+	 * Render the template with the values and send it to Slack
+	 * 
+	 * Goes through the circuit breaker and retry policy as call does. Over the rate limit it fails
+	 * under FAIL_FAST and waits for its slot under the other policies. Rendered posts are not
+	 * checked by the deduplicator.
+	 * 
+	 * @param values
+	 *            per placeholder name, the text to put in its place
+	 * @throws IllegalArgumentException
+	 *             if a placeholder has no value
+	 */
+	public void call(SlackTemplate template, Map<String, ?> values) {
+		if (template == null) {
+			return;
+		}
+
+		final long id = this.track();
+		final long preparing = id != 0 ? System.nanoTime() : 0;
+		final SlackBody body;
 		try {
-			// Create connection
-			final URL url = new URL(this.service);
-			connection = (HttpURLConnection) url.openConnection(proxy);
-			connection.setRequestMethod(POST);
-			connection.setConnectTimeout(timeout);
-			connection.setUseCaches(false);
-			connection.setDoInput(true);
-			connection.setDoOutput(true);
-
-			final String payload = PAYLOAD + URLEncoder.encode(message.toString(), UTF_8);
-
-			// Send request
-			final DataOutputStream wr = new DataOutputStream(connection.getOutputStream());
-			wr.writeBytes(payload);
-			wr.flush();
-			wr.close();
-
-			// Get Response
-			final InputStream is = connection.getInputStream();
-			final BufferedReader rd = new BufferedReader(new InputStreamReader(is));
-			String line;
-			StringBuilder response = new StringBuilder();
-			while ((line = rd.readLine()) != null) {
-				response.append(line);
-				response.append('\n');
-			}
-
-			rd.close();
-			return response.toString();
-		} catch (Exception e) {
+			body = SlackBodyEncoder.encode(template, values, bodyMode);
+		} catch (IOException e) {
+			final SlackException failure = new SlackException(e);
+			this.dropped(id, SlackDropReason.FAILED, failure);
+			throw failure;
+		} catch (RuntimeException e) {
+			this.dropped(id, SlackDropReason.FAILED, e);
+			throw e;
+		}
+		this.serialized(id, preparing, body.getSize());
+
+		this.retry(id, attempt -> this.callOnce(body, id, attempt));
+	}
+
+	/**
+	 * Make attempts on the calling thread until one succeeds or the retry policy gives up. A
+	 * message that cannot be serialized fails at once, reported as dropped like any other failure.
+	 */
+	private void retry(long id, IntConsumer attempts) {
+		final SlackRetryPolicy policy = this.retryPolicy;
+		long delay = 0;
+		for (int attempt = 1;; attempt++) {
+			try {
+				attempts.accept(attempt);
+				return;
+			} catch (SlackException e) {
+				if (policy == null || attempt >= policy.getMaxAttempts() || !policy.isRetriable(e)) {
+					this.dropped(id, SlackDropReason.FAILED, e);
+					throw e;
+				}
+
+				delay = policy.nextDelay(delay, e);
+				this.retried(id, attempt + 1, delay, e);
+				try {
+					policy.await(delay);
+				} catch (InterruptedException interrupted) {
+					Thread.currentThread().interrupt();
+					this.dropped(id, SlackDropReason.FAILED, e);
+					throw e;
+				}
+			} catch (RuntimeException e) {
+				this.dropped(id, SlackDropReason.FAILED, e);
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * Single attempt at sending, after the circuit breaker and the rate limiter have had their say
+	 * 
+	 * @param id
+	 *            correlation id from track(), 0 if the message is not tracked
+	 * @return the response
+	 */
+	SlackResponse callOnce(SlackMessage message, final long id, int attempt) {
+		this.checkCircuit();
+
+		final SlackRateLimiter limiter = this.rateLimiter;
+		if (limiter != null) {
+			switch (limiter.getPolicy()) {
+			case FAIL_FAST:
+				if (!limiter.tryAcquire(service)) {
+					throw new SlackException("Rate limit exceeded @ SlackApi");
+				}
+				break;
+
+			default:
+				this.acquire(limiter);
+			}
+		}
+
+		final long preparing = id != 0 ? System.nanoTime() : 0;
+		if (message.isMemoized()) {
+			final SlackBody body;
+			try {
+				body = this.encode(message);
+			} catch (IOException e) {
+				throw new SlackException(e);
+			}
+			this.serialized(id, preparing, body.getSize());
+
+			return this.send(body, id, attempt);
+		}
+
+		// Serialized inside the transport, so refuse a bad message here, as prepare() would have
+		message.validate();
+		this.serialized(id, preparing, -1);
+
+		return this.send(message, id, attempt);
+	}
+
+	/**
+	 * Encode the message for a post, reporting the time taken to the delivery listeners
+	 * 
+	 * @param id
+	 *            correlation id from track(), 0 if the message is not tracked
+	 * @throws IllegalArgumentException
+	 *             if the message is one Slack would refuse, as SlackMessage.prepare does
+	 */
+	SlackBody encode(SlackMessage message, long id) {
+		final long preparing = id != 0 ? System.nanoTime() : 0;
+		final SlackBody body;
+		try {
+			body = this.encode(message);
+		} catch (IOException e) {
+			final SlackException failure = new SlackException(e);
+			this.dropped(id, SlackDropReason.FAILED, failure);
+			throw failure;
+		} catch (RuntimeException e) {
+			this.dropped(id, SlackDropReason.FAILED, e);
+			throw e;
+		}
+		this.serialized(id, preparing, body.getSize());
+
+		return body;
+	}
+
+	/**
+	 * @return true if posts over the rate limit are deferred to the async path's timer
+	 */
+	boolean isDeferring() {
+		final SlackRateLimiter limiter = this.rateLimiter;
+		return limiter != null && limiter.getPolicy() == SlackRateLimitPolicy.DEFER;
+	}
+
+	/**
+	 * Single blocking attempt at posting an already encoded body. Over the rate limit it fails
+	 * under FAIL_FAST and waits for its slot otherwise.
+	 */
+	SlackResponse callOnce(SlackBody body) {
+		return this.callOnce(body, 0, 1);
+	}
+
+	SlackResponse callOnce(SlackBody body, long id, int attempt) {
+		this.checkCircuit();
+
+		final SlackRateLimiter limiter = this.rateLimiter;
+		if (limiter != null) {
+			if (limiter.getPolicy() == SlackRateLimitPolicy.FAIL_FAST) {
+				if (!limiter.tryAcquire(service)) {
+					throw new SlackException("Rate limit exceeded @ SlackApi");
+				}
+			} else {
+				this.acquire(limiter);
+			}
+		}
+
+		return this.send(body, id, attempt);
+	}
+
+	String getService() {
+		return service;
+	}
+
+	/**
+	 * Ask the deduplicator, if any, whether the body repeats one sent to this webhook within its
+	 * TTL. The fingerprint, the one SlackFingerprint.of(api, message) gives, is taken from the bytes
+	 * about to be posted, so nothing is encoded twice.
+	 */
+	boolean isDuplicate(SlackBody body) {
+		final SlackDeduplicator deduplicator = this.deduplicator;
+		return deduplicator != null && !deduplicator.admit(SlackFingerprint.of(service, body));
+	}
+
+	private void checkCircuit() {
+		final SlackCircuitBreaker breaker = this.circuitBreaker;
+		if (breaker != null && !breaker.allow(service)) {
+			throw breaker.rejection(service);
+		}
+	}
+
+	private void acquire(SlackRateLimiter limiter) {
+		try {
+			limiter.acquire(service);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
 			throw new SlackException(e);
-		} finally {
-			if (connection != null) {
-				connection.disconnect();
+		}
+	}
+
+	/**
+	 * Prepare Message and send to Slack without blocking the calling thread
+	 * 
+	 * Unless a transport is set, all posts made through this instance share one HttpClient, so
+	 * many posts can be in flight at once without holding a thread each. Non-2xx answers complete
+	 * the future exceptionally with a SlackException carrying the response.
+	 * 
+	 * With a rate limiter set, a message over the limit is never waited for on the calling thread:
+	 * FAIL_FAST completes the future with a SlackException, the other policies schedule the post
+	 * on a timer for when the webhook's next slot comes up.
+	 * 
+	 * With a retry policy set, transient failures are retried from the policy's timer and the
+	 * future completes with the outcome of the last attempt.
+	 */
+	public CompletableFuture<SlackResponse> callAsync(SlackMessage message) {
+		if (message == null) {
+			return CompletableFuture.completedFuture(null);
+		}
+
+		final long id = this.track();
+		final long preparing = id != 0 ? System.nanoTime() : 0;
+		final SlackBody body;
+		try {
+			body = this.encode(message);
+		} catch (Exception e) {
+			final SlackException failure = e instanceof SlackException ? (SlackException) e : new SlackException(e);
+			this.dropped(id, SlackDropReason.FAILED, failure);
+			return failed(failure);
+		}
+		this.serialized(id, preparing, body.getSize());
+
+		if (this.isDuplicate(body)) {
+			this.dropped(id, SlackDropReason.DUPLICATE, null);
+			return CompletableFuture.completedFuture(null);
+		}
+
+		return this.sendAsync(body, id);
+	}
+
+	/**
+	 * Render the template with the values and send it to Slack without blocking the calling
+	 * thread, with the same rate limiting and retries as callAsync for a message
+	 * 
+	 * @param values
+	 *            per placeholder name, the text to put in its place; a missing one completes the
+	 *            future with a SlackException
+	 */
+	public CompletableFuture<SlackResponse> callAsync(SlackTemplate template, Map<String, ?> values) {
+		if (template == null) {
+			return CompletableFuture.completedFuture(null);
+		}
+
+		final long id = this.track();
+		final long preparing = id != 0 ? System.nanoTime() : 0;
+		final SlackBody body;
+		try {
+			body = SlackBodyEncoder.encode(template, values, bodyMode);
+		} catch (Exception e) {
+			final SlackException failure = e instanceof SlackException ? (SlackException) e : new SlackException(e);
+			this.dropped(id, SlackDropReason.FAILED, failure);
+			return failed(failure);
+		}
+		this.serialized(id, preparing, body.getSize());
+
+		return this.sendAsync(body, id);
+	}
+
+	/**
+	 * Post an already encoded body, with the same rate limiting and retries as callAsync
+	 * 
+	 * @param id
+	 *            correlation id from track(), 0 if the message is not tracked
+	 */
+	CompletableFuture<SlackResponse> sendAsync(SlackBody body, long id) {
+		final CompletableFuture<SlackResponse> result = new CompletableFuture<SlackResponse>();
+		this.attemptAsync(body, this.retryPolicy, 1, 0, result, id);
+		return result;
+	}
+
+	private void attemptAsync(final SlackBody body, final SlackRetryPolicy policy, final int attempt,
+			final long previousDelay, final CompletableFuture<SlackResponse> result, final long id) {
+		this.callOnceAsync(body, id, attempt).whenComplete((response, error) -> {
+			if (error == null) {
+				result.complete(response);
+				return;
+			}
+
+			final Throwable cause = error instanceof CompletionException && error.getCause() != null
+					? error.getCause() : error;
+			if (policy == null || attempt >= policy.getMaxAttempts() || !policy.isRetriable(cause)) {
+				this.dropped(id, SlackDropReason.FAILED, cause);
+				result.completeExceptionally(cause);
+				return;
+			}
+
+			final long delay = policy.nextDelay(previousDelay, cause);
+			this.retried(id, attempt + 1, delay, cause);
+			policy.schedule(delay, () -> attemptAsync(body, policy, attempt + 1, delay, result, id));
+		});
+	}
+
+	private CompletableFuture<SlackResponse> callOnceAsync(SlackBody body, long id, int attempt) {
+		final SlackCircuitBreaker breaker = this.circuitBreaker;
+		if (breaker != null && !breaker.allow(service)) {
+			return failed(breaker.rejection(service));
+		}
+
+		final SlackRateLimiter limiter = this.rateLimiter;
+		if (limiter == null) {
+			return this.post(body, 0, id, attempt);
+		}
+
+		if (limiter.getPolicy() == SlackRateLimitPolicy.FAIL_FAST) {
+			if (!limiter.tryAcquire(service)) {
+				return failed(new SlackException("Rate limit exceeded @ SlackApi"));
+			}
+			return this.post(body, 0, id, attempt);
+		}
+
+		if (limiter.getPolicy() == SlackRateLimitPolicy.DEFER) {
+			final long delay = limiter.defer(service);
+			if (delay < 0) {
+				return failed(new SlackException("Rate limit deferral exceeded @ SlackApi"));
+			}
+			return this.post(body, delay, id, attempt);
+		}
+
+		return this.post(body, limiter.reserve(service), id, attempt);
+	}
+
+	private CompletableFuture<SlackResponse> post(final SlackBody body, long delay, final long id, final int attempt) {
+		if (delay > 0) {
+			final Executor timer = CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS);
+			return CompletableFuture.supplyAsync(() -> body, timer).thenCompose(b -> this.post(b, id, attempt));
+		}
+
+		return this.post(body, id, attempt);
+	}
+
+	private CompletableFuture<SlackResponse> post(final SlackBody body, long id, int attempt) {
+		final SlackRequest request = this.request(body, body.getMode(), body.getSize(), true, id, attempt);
+		final long start = System.nanoTime();
+		CompletableFuture<SlackResponse> sent;
+		try {
+			final SlackTransport transport = this.transport;
+			sent = this.describe(request, transport != null ? transport : this.asyncTransport()).sendAsync(request);
+		} catch (Exception e) {
+			sent = failed(e instanceof SlackException ? (SlackException) e : new SlackException(e));
+		}
+
+		return sent.handle((response, error) -> {
+			if (error != null) {
+				final Throwable cause = error instanceof CompletionException && error.getCause() != null
+						? error.getCause() : error;
+				this.unanswered(request, start, cause);
+				throw this.failure(cause instanceof SlackException ? (SlackException) cause : new SlackException(cause));
+			}
+
+			return this.verify(request, this.measure(request, response, body.getSize(), body.getFormSize(), start));
+		});
+	}
+
+	private static CompletableFuture<SlackResponse> failed(SlackException e) {
+		final CompletableFuture<SlackResponse> failed = new CompletableFuture<SlackResponse>();
+		failed.completeExceptionally(e);
+		return failed;
+	}
+
+	/**
+	 * Encode a message as the body Slack's webhooks expect, in this instance's body mode, or
+	 * take the body a memoized message kept
+	 */
+	SlackBody encode(SlackMessage message) throws IOException {
+		return message.encode(bodyMode);
+	}
+
+	private SlackRequest request(SlackPooledConnection.Body body, SlackBodyMode mode, long length, boolean async,
+			long id, int attempt) {
+		return new SlackRequest(this.service, this.proxy, this.timeout, mode, length, body,
+				SlackSendEvent.start(host, async), id, attempt);
+	}
+
+	/**
+	 * Name the transport on the request's JFR event, if any
+	 */
+	private SlackTransport describe(SlackRequest request, SlackTransport transport) {
+		final SlackSendEvent event = request.getEvent();
+		if (event != null) {
+			event.transport = transport.getClass().getSimpleName();
+		}
+
+		return transport;
+	}
+
+	/**
+	 * Attach the size of the request body to its response and add it to this instance's totals,
+	 * to the metrics registry if any, and to the request's JFR event if any
+	 * 
+	 * @param start
+	 *            System.nanoTime() when the request was handed to the transport
+	 */
+	private SlackResponse measure(SlackRequest request, SlackResponse response, long size, long formSize, long start) {
+		final long saved = formSize - size;
+		bytesSent.addAndGet(size);
+		bytesSaved.addAndGet(saved);
+
+		final SlackMetrics metrics = this.metrics;
+		if (metrics != null) {
+			metrics.recordResponse(System.nanoTime() - start, size, response);
+		}
+
+		final SlackSendEvent event = request.getEvent();
+		if (event != null) {
+			event.finish(response, size);
+		}
+
+		final long id = request.getId();
+		final SlackDeliveryListener[] listeners = this.listeners;
+		if (id != 0 && listeners.length > 0) {
+			final long now = System.nanoTime();
+			for (SlackDeliveryListener listener : listeners) {
+				try {
+					listener.onSent(id, now, request.getAttempt(), now - start, response);
+				} catch (RuntimeException e) {
+					// Listeners must not break sends
+				}
+			}
+		}
+
+		return new SlackResponse(response, size, saved);
+	}
+
+	/**
+	 * Throw for non-2xx answers, and tell the circuit breaker and delivery listeners how the post
+	 * went
+	 */
+	private SlackResponse verify(SlackRequest request, SlackResponse response) {
+		if (!response.isOk()) {
+			throw this.failure(new SlackException(response));
+		}
+
+		final SlackCircuitBreaker breaker = this.circuitBreaker;
+		if (breaker != null) {
+			breaker.onSuccess(service);
+		}
+
+		final long id = request.getId();
+		final SlackDeliveryListener[] listeners = this.listeners;
+		if (id != 0 && listeners.length > 0) {
+			final long now = System.nanoTime();
+			for (SlackDeliveryListener listener : listeners) {
+				try {
+					listener.onAcknowledged(id, now, request.getAttempt(), response);
+				} catch (RuntimeException e) {
+					// Listeners must not break sends
+				}
+			}
+		}
+
+		return response;
+	}
+
+	/**
+	 * Count a post that failed without an answer
+	 */
+	private void unanswered(SlackRequest request, long start, Throwable failure) {
+		final SlackMetrics metrics = this.metrics;
+		if (metrics != null) {
+			metrics.recordFailure(System.nanoTime() - start);
+		}
+
+		final SlackSendEvent event = request.getEvent();
+		if (event != null) {
+			event.fail(failure);
+		}
+	}
+
+	/**
+	 * @return a new correlation id if any delivery listener is registered, else 0
+	 */
+	long track() {
+		return listeners.length > 0 ? IDS.incrementAndGet() : 0;
+	}
+
+	void enqueued(long id, SlackMessage message) {
+		final SlackDeliveryListener[] listeners = this.listeners;
+		if (id == 0 || listeners.length == 0) {
+			return;
+		}
+
+		final long now = System.nanoTime();
+		for (SlackDeliveryListener listener : listeners) {
+			try {
+				listener.onEnqueued(id, now, message);
+			} catch (RuntimeException e) {
+				// Listeners must not break sends
+			}
+		}
+	}
+
+	void serialized(long id, long start, long bodySize) {
+		final SlackDeliveryListener[] listeners = this.listeners;
+		if (id == 0 || listeners.length == 0) {
+			return;
+		}
+
+		final long now = System.nanoTime();
+		for (SlackDeliveryListener listener : listeners) {
+			try {
+				listener.onSerialized(id, now, now - start, bodySize);
+			} catch (RuntimeException e) {
+				// Listeners must not break sends
+			}
+		}
+	}
+
+	/**
+	 * Count a retry in the metrics registry, and tell the delivery listeners
+	 * 
+	 * @param attempt
+	 *            the attempt that is coming
+	 * @param delay
+	 *            milliseconds of backoff before it
+	 */
+	void retried(long id, int attempt, long delay, Throwable cause) {
+		final SlackMetrics metrics = this.metrics;
+		if (metrics != null) {
+			metrics.recordRetry();
+		}
+
+		final SlackDeliveryListener[] listeners = this.listeners;
+		if (id == 0 || listeners.length == 0) {
+			return;
+		}
+
+		final long now = System.nanoTime();
+		for (SlackDeliveryListener listener : listeners) {
+			try {
+				listener.onRetried(id, now, attempt, TimeUnit.MILLISECONDS.toNanos(delay), cause);
+			} catch (RuntimeException e) {
+				// Listeners must not break sends
+			}
+		}
+	}
+
+	void dropped(long id, SlackDropReason reason, Throwable cause) {
+		final SlackDeliveryListener[] listeners = this.listeners;
+		if (id == 0 || listeners.length == 0) {
+			return;
+		}
+
+		final long now = System.nanoTime();
+		for (SlackDeliveryListener listener : listeners) {
+			try {
+				listener.onDropped(id, now, reason, cause);
+			} catch (RuntimeException e) {
+				// Listeners must not break sends
 			}
 		}
 	}
+
+	private SlackException failure(SlackException e) {
+		final SlackCircuitBreaker breaker = this.circuitBreaker;
+		if (breaker != null) {
+			breaker.onFailure(service, e);
+		}
+
+		return e;
+	}
+
+	private SlackHttpClientTransport asyncTransport() {
+		SlackHttpClientTransport result = this.asyncTransport;
+		if (result == null) {
+			synchronized (this) {
+				result = this.asyncTransport;
+				if (result == null) {
+					result = this.asyncTransport = new SlackHttpClientTransport(timeout, proxy);
+				}
+			}
+		}
+
+		return result;
+	}
+
+	private SlackResponse send(SlackMessage message, long id, int attempt) {
+		final MessageBody body = new MessageBody(message, bodyMode);
+		final SlackRequest request = this.request(body, body.mode, -1, false, id, attempt);
+		final long start = System.nanoTime();
+		final SlackResponse response = this.transmit(request, start);
+		return this.verify(request,
+				this.measure(request, response, body.encoder.getSize(), body.encoder.getFormSize(), start));
+	}
+
+	private SlackResponse send(SlackBody body, long id, int attempt) {
+		final SlackRequest request = this.request(body, body.getMode(), body.getSize(), false, id, attempt);
+		final long start = System.nanoTime();
+		final SlackResponse response = this.transmit(request, start);
+		return this.verify(request, this.measure(request, response, body.getSize(), body.getFormSize(), start));
+	}
+
+	private SlackResponse transmit(SlackRequest request, long start) {
+		final SlackTransport transport = this.transport;
+		try {
+			return this.describe(request, transport != null ? transport : DIRECT).send(request);
+		} catch (Exception e) {
+			this.unanswered(request, start, e);
+			throw this.failure(e instanceof SlackException ? (SlackException) e : new SlackException(e));
+		}
+	}
+
+	/**
+	 * A message serialized when the transport asks for its body and written to the connection
+	 * from a pooled buffer. Keeps the encoder of the last write for its sizes.
+	 */
+	private static class MessageBody implements SlackPooledConnection.Body {
+		final SlackMessage message;
+		final SlackBodyMode mode;
+		SlackBodyEncoder encoder;
+
+		MessageBody(SlackMessage message, SlackBodyMode mode) {
+			this.message = message;
+			this.mode = mode;
+		}
+
+		@Override
+		public void writeTo(OutputStream out) throws IOException {
+			encoder = SlackBodyEncoder.write(message, mode, out);
+		}
+	}
 }
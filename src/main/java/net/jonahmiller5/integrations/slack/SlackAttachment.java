@@ -1,5 +1,6 @@
 package net.jonahmiller5.integrations.slack;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashSet;
@@ -58,6 +59,9 @@ public class SlackAttachment {
 	private String footer = null;
 	private String footerIcon = null;
 
+	/** When the attachment last changed, see SlackMessage.setMemoized */
+	volatile long stamp;
+
 	public SlackAttachment() {
 	}
 
@@ -67,22 +71,32 @@ public class SlackAttachment {
 
 	public SlackAttachment addFields(SlackField field) {
 		this.fields.add(field);
+		this.changed();
 
 		return this;
 	}
 
 	public SlackAttachment addAction(SlackAction action) {
 		this.actions.add(action);
+		this.changed();
 
 		return this;
 	}
 
 	public SlackAttachment addMarkdownAttribute(String attr) {
 		this.markdownAttributes.add(attr);
+		this.changed();
 
 		return this;
 	}
 
+	/**
+	 * Mark the attachment changed, so memoized messages holding it encode it again
+	 */
+	private void changed() {
+		this.stamp = SlackMessage.nextStamp();
+	}
+
 	private boolean isHex(String pair) {
 		return pair.matches(HEX_REGEX);
 	}
@@ -107,12 +121,14 @@ public class SlackAttachment {
 
 	public SlackAttachment removeAction(int index) {
 		this.actions.remove(index);
+		this.changed();
 
 		return this;
 	}
 
 	public SlackAttachment removeFields(int index) {
 		this.fields.remove(index);
+		this.changed();
 
 		return this;
 	}
@@ -128,6 +144,7 @@ public class SlackAttachment {
 
 	public SlackAttachment removeMarkdownAttribute(String attr) {
 		this.markdownAttributes.remove(attr);
+		this.changed();
 
 		return this;
 	}
@@ -144,106 +161,139 @@ public class SlackAttachment {
 		}
 
 		this.color = color;
+		this.changed();
 
 		return this;
 	}
 
 	public SlackAttachment setFallback(String fallback) {
 		this.fallback = fallback;
+		this.changed();
 
 		return this;
 	}
 
 	public SlackAttachment setCallbackId(String callbackId) {
 		this.callbackId = callbackId;
+		this.changed();
 
 		return this;
 	}
 
 	public SlackAttachment setFields(List<SlackField> fields) {
-		this.fields = fields;
+		this.fields = new ArrayList<SlackField>(fields);
+		this.changed();
 
 		return this;
 	}
 
 	public SlackAttachment setPretext(String pretext) {
 		this.pretext = pretext;
+		this.changed();
 
 		return this;
 	}
 
 	public SlackAttachment setText(String text) {
 		this.text = text;
+		this.changed();
 
 		return this;
 	}
 
 	public SlackAttachment setAuthorName(String authorName) {
 		this.authorName = authorName;
+		this.changed();
 
 		return this;
 	}
 
 	public SlackAttachment setAuthorLink(String authorLink) {
 		this.authorLink = authorLink;
+		this.changed();
 
 		return this;
 	}
 
 	public SlackAttachment setAuthorIcon(String authorIcon) {
 		this.authorIcon = authorIcon;
+		this.changed();
 
 		return this;
 	}
 
 	public SlackAttachment setTitle(String title) {
 		this.title = title;
+		this.changed();
 
 		return this;
 	}
 
 	public SlackAttachment setTitleLink(String titleLink) {
 		this.titleLink = titleLink;
+		this.changed();
 
 		return this;
 	}
 
 	public SlackAttachment setImageUrl(String imageUrl) {
 		this.imageUrl = imageUrl;
+		this.changed();
 
 		return this;
 	}
 
 	public SlackAttachment setThumbUrl(String thumbUrl) {
 		this.thumbUrl = thumbUrl;
+		this.changed();
 
 		return this;
 	}
 
 	public SlackAttachment setTimestamp(Long timestamp) {
 		this.timestamp = timestamp;
+		this.changed();
 
 		return this;
 	}
 
 	public SlackAttachment setTimestamp(Date date) {
 		this.timestamp = date.getTime() / 1000;
+		this.changed();
 
 		return this;
 	}
 
 	public SlackAttachment setFooter(String footer) {
 		this.footer = footer;
+		this.changed();
 
 		return this;
 	}
 
 	public SlackAttachment setFooterIcon(String footerIcon) {
 		this.footerIcon = footerIcon;
+		this.changed();
 
 		return this;
 	}
 
+	public String getFallback() {
+		return fallback;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	public String getColor() {
+		return color;
+	}
+
+	public String getTitle() {
+		return title;
+	}
+
 	public JsonObject toJson() {
 		JsonObject data = new JsonObject();
 
@@ -326,6 +376,107 @@ public class SlackAttachment {
 		return data;
 	}
 
+	/**
+	 * Write the same JSON as toJson, straight into the writer
+	 */
+	public void writeJson(SlackJsonWriter out) throws IOException {
+		this.validate();
+		out.beginObject();
+		out.name(SlackJsonKey.FALLBACK).value(fallback);
+
+		if (text != null) {
+			out.name(SlackJsonKey.TEXT).value(text);
+		}
+
+		if (pretext != null) {
+			out.name(SlackJsonKey.PRETEXT).value(pretext);
+		}
+
+		if (color != null) {
+			out.name(SlackJsonKey.COLOR).value(color);
+		}
+
+		if (authorName != null) {
+			out.name(SlackJsonKey.AUTHOR_NAME).value(authorName);
+		}
+
+		if (authorLink != null) {
+			out.name(SlackJsonKey.AUTHOR_LINK).value(authorLink);
+		}
+
+		if (authorIcon != null) {
+			out.name(SlackJsonKey.AUTHOR_ICON).value(authorIcon);
+		}
+
+		if (title != null) {
+			out.name(SlackJsonKey.TITLE).value(title);
+		}
+
+		if (titleLink != null) {
+			out.name(SlackJsonKey.TITLE_LINK).value(titleLink);
+		}
+
+		if (imageUrl != null) {
+			out.name(SlackJsonKey.IMAGE_URL).value(imageUrl);
+		}
+
+		if (thumbUrl != null) {
+			out.name(SlackJsonKey.THUMB_URL).value(thumbUrl);
+		}
+
+		if (markdownAttributes != null) {
+			out.name(SlackJsonKey.MRKDWN_IN).beginArray();
+			for (String attr : markdownAttributes) {
+				out.value(attr);
+			}
+			out.endArray();
+		}
+
+		if (fields != null && fields.size() > 0) {
+			out.name(SlackJsonKey.FIELDS).beginArray();
+			for (SlackField field : fields) {
+				field.writeJson(out);
+			}
+			out.endArray();
+		}
+
+		if (actions != null && actions.size() > 0) {
+			out.name(SlackJsonKey.ACTIONS).beginArray();
+			for (SlackAction action : actions) {
+				action.writeJson(out);
+			}
+			out.endArray();
+			out.name(SlackJsonKey.CALLBACK_ID).value(callbackId);
+		}
+
+		if (timestamp != null) {
+			out.name(SlackJsonKey.TIMESTAMP).value(timestamp);
+		}
+
+		if (footer != null) {
+			out.name(SlackJsonKey.FOOTER).value(footer);
+		}
+
+		if (footerIcon != null) {
+			out.name(SlackJsonKey.FOOTER_ICON).value(footerIcon);
+		}
+
+		out.endObject();
+	}
+
+	/**
+	 * Throw what toJson throws for an attachment Slack would refuse, before anything is written
+	 */
+	void validate() {
+		if (fallback == null) {
+			throw new IllegalArgumentException("Missing Fallback @ SlackAttachment");
+		}
+
+		if (actions != null && actions.size() > 0 && callbackId == null) {
+			throw new IllegalArgumentException("Missing Callback ID @ SlackAttachment");
+		}
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		if (this == o)
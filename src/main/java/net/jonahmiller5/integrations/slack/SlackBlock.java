@@ -1,11 +1,14 @@
 package net.jonahmiller5.integrations.slack;
 
+import java.io.IOException;
+
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 
 /** 
@@ -38,6 +41,10 @@ public abstract class SlackBlock {
     String type;
     String block_id;
     
+    /** When the block last changed, see SlackMessage.setMemoized */
+    @Getter(AccessLevel.NONE)
+    volatile long stamp;
+    
     public boolean updateBlockId(String newBlockId) {
         if (newBlockId == null || newBlockId.equals("")) {
             return false;
@@ -47,12 +54,29 @@ public abstract class SlackBlock {
             newBlockId = newBlockId.substring(0, BLOCK_ID_MAX_LENGTH);
         }
         this.block_id = newBlockId;
+        this.changed();
         
         return true;
     }
     
     public abstract JsonObject toJson();
     
+    /**
+     * Write the same JSON as toJson straight into the writer, without building the Gson tree
+     * 
+     * The built-in blocks all override this; other blocks fall back to writing their toJson
+     */
+    public void writeJson(SlackJsonWriter out) throws IOException {
+        out.json(this.toJson());
+    }
+    
+    /**
+     * Mark the block changed, so memoized messages holding it encode it again
+     */
+    void changed() {
+        this.stamp = SlackMessage.nextStamp();
+    }
+    
     public void testJson() {
         JsonObject j = this.toJson();
         Gson gson = new GsonBuilder().setPrettyPrinting().create();
@@ -1,5 +1,7 @@
 package net.jonahmiller5.integrations.slack;
 
+import java.io.IOException;
+
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 
@@ -49,6 +51,7 @@ public class SlackBlockActions extends SlackBlock {
         
         this.elements[this.numElements] = newElement;
         numElements++;
+        this.changed();
         
         return true;
     }
@@ -56,6 +59,7 @@ public class SlackBlockActions extends SlackBlock {
     public void clearElements() {
         this.elements = new SlackBlockElement[MAX_NUM_ELEMENTS];
         this.numElements = 0;
+        this.changed();
     }
     
     @Override
@@ -78,4 +82,24 @@ public class SlackBlockActions extends SlackBlock {
         
         return result;
     }
+
+    @Override
+    public void writeJson(SlackJsonWriter out) throws IOException {
+        out.beginObject();
+        out.name(SlackJsonKey.TYPE).value(this.type);
+        
+        out.name(SlackJsonKey.ELEMENTS).beginArray();
+        for (SlackBlockElement element : this.elements) {
+            if (element != null) {
+                element.writeJson(out);
+            }
+        }
+        out.endArray();
+        
+        if (this.block_id != null) {
+            out.name(SlackJsonKey.BLOCK_ID).value(this.block_id);
+        }
+        
+        out.endObject();
+    }
 }
@@ -1,5 +1,7 @@
 package net.jonahmiller5.integrations.slack;
 
+import java.io.IOException;
+
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 
@@ -47,6 +49,7 @@ public class SlackBlockContext extends SlackBlock {
         
         this.elements[this.numElements] = newElement;
         numElements++;
+        this.changed();
         
         return true;
     }
@@ -54,6 +57,7 @@ public class SlackBlockContext extends SlackBlock {
     public void clearElements() {
         this.elements = new Object[MAX_NUM_ELEMENTS];
         this.numElements = 0;
+        this.changed();
     }
     
     @Override
@@ -80,4 +84,28 @@ public class SlackBlockContext extends SlackBlock {
         
         return result;
     }
+
+    @Override
+    public void writeJson(SlackJsonWriter out) throws IOException {
+        out.beginObject();
+        out.name(SlackJsonKey.TYPE).value(this.type);
+        
+        out.name(SlackJsonKey.ELEMENTS).beginArray();
+        for (Object element : this.elements) {
+            if (element != null) {
+                if (element instanceof SlackBlockElementImage) {
+                    ((SlackBlockElementImage) element).writeJson(out);
+                } else {
+                    ((SlackMCOText) element).writeJson(out);
+                }
+            }
+        }
+        out.endArray();
+        
+        if (this.block_id != null) {
+            out.name(SlackJsonKey.BLOCK_ID).value(this.block_id);
+        }
+        
+        out.endObject();
+    }
 }
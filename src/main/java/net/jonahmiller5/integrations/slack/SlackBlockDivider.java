@@ -1,5 +1,7 @@
 package net.jonahmiller5.integrations.slack;
 
+import java.io.IOException;
+
 import com.google.gson.JsonObject;
 
 /** 
@@ -38,4 +40,16 @@ public class SlackBlockDivider extends SlackBlock {
         return result;
     }
 
+    @Override
+    public void writeJson(SlackJsonWriter out) throws IOException {
+        out.beginObject();
+        out.name(SlackJsonKey.TYPE).value(this.type);
+        
+        if (this.block_id != null) {
+            out.name(SlackJsonKey.BLOCK_ID).value(this.block_id);
+        }
+        
+        out.endObject();
+    }
+
 }
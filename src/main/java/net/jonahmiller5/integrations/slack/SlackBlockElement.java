@@ -1,5 +1,7 @@
 package net.jonahmiller5.integrations.slack;
 
+import java.io.IOException;
+
 import com.google.gson.JsonObject;
 
 /** 
@@ -27,6 +29,13 @@ public interface SlackBlockElement {
 
     JsonObject toJson();
     
+    /**
+     * Write the same JSON as toJson straight into the writer, without building the Gson tree
+     */
+    default void writeJson(SlackJsonWriter out) throws IOException {
+        out.json(this.toJson());
+    }
+    
     // Note: SlackSender will have to maintain a map of "action_id"s, since each SlackBlockElement 
     // has to have a universally unique "action_id" field
     
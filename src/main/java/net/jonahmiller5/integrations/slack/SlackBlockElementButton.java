@@ -1,5 +1,6 @@
 package net.jonahmiller5.integrations.slack;
 
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 
@@ -162,4 +163,32 @@ public class SlackBlockElementButton implements SlackBlockElement {
         
         return result;
     }
+
+    @Override
+    public void writeJson(SlackJsonWriter out) throws IOException {
+        out.beginObject();
+        out.name(SlackJsonKey.TYPE).value(this.type);
+        out.name(SlackJsonKey.TEXT);
+        this.text.writeJson(out);
+        out.name(SlackJsonKey.ACTION_ID).value(this.action_id);
+        
+        if (this.url != null) {
+            out.name(SlackJsonKey.URL).value(this.url);
+        }
+        
+        if (this.value != null) {
+            out.name(SlackJsonKey.VALUE).value(this.value);
+        }
+        
+        if (this.style != null) {
+            out.name(SlackJsonKey.STYLE).value(this.style);
+        }
+        
+        if (this.confirm != null) {
+            out.name(SlackJsonKey.CONFIRM);
+            this.confirm.writeJson(out);
+        }
+        
+        out.endObject();
+    }
 }
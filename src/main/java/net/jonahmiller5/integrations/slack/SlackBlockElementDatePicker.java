@@ -1,5 +1,7 @@
 package net.jonahmiller5.integrations.slack;
 
+import java.io.IOException;
+
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
@@ -117,6 +119,29 @@ public class SlackBlockElementDatePicker implements SlackBlockElement {
         
         return result;
     }
+
+    @Override
+    public void writeJson(SlackJsonWriter out) throws IOException {
+        out.beginObject();
+        out.name(SlackJsonKey.TYPE).value(this.type);
+        out.name(SlackJsonKey.ACTION_ID).value(this.action_id);
+        
+        if (this.placeholder != null) {
+            out.name(SlackJsonKey.PLACEHOLDER);
+            this.placeholder.writeJson(out);
+        }
+        
+        if (this.initial_date != null) {
+            out.name(SlackJsonKey.INITIAL_DATE).value(this.initial_date);
+        }
+        
+        if (this.confirm != null) {
+            out.name(SlackJsonKey.CONFIRM);
+            this.confirm.writeJson(out);
+        }
+        
+        out.endObject();
+    }
     
     public void testJson() {
         JsonObject j = this.toJson();
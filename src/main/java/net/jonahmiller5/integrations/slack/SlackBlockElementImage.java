@@ -1,5 +1,6 @@
 package net.jonahmiller5.integrations.slack;
 
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 
@@ -77,4 +78,13 @@ public class SlackBlockElementImage implements SlackBlockElement {
         
         return result;
     }
+
+    @Override
+    public void writeJson(SlackJsonWriter out) throws IOException {
+        out.beginObject();
+        out.name(SlackJsonKey.TYPE).value(this.type);
+        out.name(SlackJsonKey.IMAGE_URL).value(this.image_url);
+        out.name(SlackJsonKey.ALT_TEXT).value(this.alt_text);
+        out.endObject();
+    }
 }
@@ -1,5 +1,7 @@
 package net.jonahmiller5.integrations.slack;
 
+import java.io.IOException;
+
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 
@@ -151,7 +153,6 @@ public class SlackBlockElementOverflow implements SlackBlockElement {
         
         JsonArray jArr = new JsonArray();
         for (SlackMCOOption option : options) {
-            System.out.println("Option " + option);
             if (option != null) {
                 jArr.add(option.toJson());
             }
@@ -164,4 +165,26 @@ public class SlackBlockElementOverflow implements SlackBlockElement {
         
         return result;
     }
+
+    @Override
+    public void writeJson(SlackJsonWriter out) throws IOException {
+        out.beginObject();
+        out.name(SlackJsonKey.TYPE).value(this.type);
+        out.name(SlackJsonKey.ACTION_ID).value(this.action_id);
+        
+        out.name(SlackJsonKey.OPTIONS).beginArray();
+        for (SlackMCOOption option : options) {
+            if (option != null) {
+                option.writeJson(out);
+            }
+        }
+        out.endArray();
+        
+        if (this.confirm != null) {
+            out.name(SlackJsonKey.CONFIRM);
+            this.confirm.writeJson(out);
+        }
+        
+        out.endObject();
+    }
 }
@@ -1,5 +1,7 @@
 package net.jonahmiller5.integrations.slack;
 
+import java.io.IOException;
+
 import com.google.gson.JsonObject;
 
 import lombok.Getter;
@@ -62,4 +64,24 @@ public class SlackBlockElementSelectMenuChannels extends SlackBlockElementSelect
 
         return result;
     }
+
+    @Override
+    public void writeJson(SlackJsonWriter out) throws IOException {
+        out.beginObject();
+        out.name(SlackJsonKey.TYPE).value(this.type);
+        out.name(SlackJsonKey.PLACEHOLDER);
+        this.placeholder.writeJson(out);
+        out.name(SlackJsonKey.ACTION_ID).value(this.action_id);
+        
+        if (this.initial_channel != null) {
+            out.name(SlackJsonKey.INITIAL_CHANNEL).value(this.initial_channel);
+        }
+        
+        if (this.confirm != null) {
+            out.name(SlackJsonKey.CONFIRM);
+            this.confirm.writeJson(out);
+        }
+        
+        out.endObject();
+    }
 }
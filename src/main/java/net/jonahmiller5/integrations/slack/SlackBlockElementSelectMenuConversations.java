@@ -1,5 +1,7 @@
 package net.jonahmiller5.integrations.slack;
 
+import java.io.IOException;
+
 import com.google.gson.JsonObject;
 
 /** 
@@ -59,4 +61,24 @@ public class SlackBlockElementSelectMenuConversations extends SlackBlockElementS
 
         return result;
     }
+
+    @Override
+    public void writeJson(SlackJsonWriter out) throws IOException {
+        out.beginObject();
+        out.name(SlackJsonKey.TYPE).value(this.type);
+        out.name(SlackJsonKey.PLACEHOLDER);
+        this.placeholder.writeJson(out);
+        out.name(SlackJsonKey.ACTION_ID).value(this.action_id);
+        
+        if (this.initial_conversation != null) {
+            out.name(SlackJsonKey.INITIAL_CONVERSATION).value(this.initial_conversation);
+        }
+        
+        if (this.confirm != null) {
+            out.name(SlackJsonKey.CONFIRM);
+            this.confirm.writeJson(out);
+        }
+        
+        out.endObject();
+    }
 }
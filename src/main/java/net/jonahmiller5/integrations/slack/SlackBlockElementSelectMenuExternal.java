@@ -1,5 +1,7 @@
 package net.jonahmiller5.integrations.slack;
 
+import java.io.IOException;
+
 import com.google.gson.JsonObject;
 
 import lombok.Getter;
@@ -71,4 +73,29 @@ public class SlackBlockElementSelectMenuExternal extends SlackBlockElementSelect
         
         return result;
     }
+
+    @Override
+    public void writeJson(SlackJsonWriter out) throws IOException {
+        out.beginObject();
+        out.name(SlackJsonKey.TYPE).value(this.type);
+        out.name(SlackJsonKey.PLACEHOLDER);
+        this.placeholder.writeJson(out);
+        out.name(SlackJsonKey.ACTION_ID).value(this.action_id);
+        
+        if (this.initial_option != null) {
+            out.name(SlackJsonKey.INITIAL_OPTION);
+            this.initial_option.writeJson(out);
+        }
+        
+        if (this.min_query_length > 0) {
+            out.name(SlackJsonKey.MIN_QUERY_LENGTH).value(this.min_query_length);
+        }
+        
+        if (this.confirm != null) {
+            out.name(SlackJsonKey.CONFIRM);
+            this.confirm.writeJson(out);
+        }
+        
+        out.endObject();
+    }
 }
@@ -1,5 +1,7 @@
 package net.jonahmiller5.integrations.slack;
 
+import java.io.IOException;
+
 import com.google.gson.JsonObject;
 import com.google.gson.JsonArray;
 
@@ -147,4 +149,45 @@ public class SlackBlockElementSelectMenuStatic extends SlackBlockElementSelectMe
         
         return result;
     }
+
+    @Override
+    public void writeJson(SlackJsonWriter out) throws IOException {
+        out.beginObject();
+        out.name(SlackJsonKey.TYPE).value(this.type);
+        out.name(SlackJsonKey.PLACEHOLDER);
+        this.placeholder.writeJson(out);
+        out.name(SlackJsonKey.ACTION_ID).value(this.action_id);
+        
+        if (this.options != null && this.option_groups == null) {
+            out.name(SlackJsonKey.OPTIONS).beginArray();
+            for (SlackMCOOption option : this.options) {
+                if (option != null) {
+                    option.writeJson(out);
+                }
+            }
+            out.endArray();
+        }
+        
+        if (this.option_groups != null && this.options == null) {
+            out.name(SlackJsonKey.OPTION_GROUPS).beginArray();
+            for (SlackMCOOptionGroup option_group : this.option_groups) {
+                if (option_group != null) {
+                    option_group.writeJson(out);
+                }
+            }
+            out.endArray();
+        }
+        
+        if (this.initial_option != null) {
+            out.name(SlackJsonKey.INITIAL_OPTION);
+            initial_option.writeJson(out);
+        }
+        
+        if (this.confirm != null) {
+            out.name(SlackJsonKey.CONFIRM);
+            this.confirm.writeJson(out);
+        }
+        
+        out.endObject();
+    }
 }
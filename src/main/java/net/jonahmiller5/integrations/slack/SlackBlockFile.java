@@ -1,5 +1,7 @@
 package net.jonahmiller5.integrations.slack;
 
+import java.io.IOException;
+
 import com.google.gson.JsonObject;
 
 import lombok.Getter;
@@ -44,6 +46,7 @@ public class SlackBlockFile extends SlackBlock {
         }
         
         this.external_id = newExternalId;
+        this.changed();
         
         return true;
     }
@@ -63,4 +66,18 @@ public class SlackBlockFile extends SlackBlock {
         return result;
     }
 
+    @Override
+    public void writeJson(SlackJsonWriter out) throws IOException {
+        out.beginObject();
+        out.name(SlackJsonKey.TYPE).value(this.type);
+        out.name(SlackJsonKey.EXTERNAL_ID).value(this.external_id);
+        out.name(SlackJsonKey.SOURCE).value(this.source);
+        
+        if (this.block_id != null) {
+            out.name(SlackJsonKey.BLOCK_ID).value(this.block_id);
+        }
+        
+        out.endObject();
+    }
+
 }
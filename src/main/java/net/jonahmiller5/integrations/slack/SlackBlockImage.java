@@ -1,5 +1,6 @@
 package net.jonahmiller5.integrations.slack;
 
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 
@@ -71,6 +72,7 @@ public class SlackBlockImage extends SlackBlock {
         }
         
         this.image_url = newImageUrl;
+        this.changed();
         
         return true;
     }
@@ -85,6 +87,7 @@ public class SlackBlockImage extends SlackBlock {
         }
         
         this.alt_text = newAltText;
+        this.changed();
         
         return true;
     }
@@ -95,6 +98,7 @@ public class SlackBlockImage extends SlackBlock {
         }
         
         this.title = newTitle;
+        this.changed();
         
         return true;
     }
@@ -118,4 +122,23 @@ public class SlackBlockImage extends SlackBlock {
         return result;
     }
 
+    @Override
+    public void writeJson(SlackJsonWriter out) throws IOException {
+        out.beginObject();
+        out.name(SlackJsonKey.TYPE).value(this.type);
+        out.name(SlackJsonKey.IMAGE_URL).value(this.image_url);
+        out.name(SlackJsonKey.ALT_TEXT).value(this.alt_text);
+        
+        if (this.title != null) {
+            out.name(SlackJsonKey.TITLE);
+            this.title.writeJson(out);
+        }
+        
+        if (this.block_id != null) {
+            out.name(SlackJsonKey.BLOCK_ID).value(this.block_id);
+        }
+        
+        out.endObject();
+    }
+
 }
@@ -1,5 +1,7 @@
 package net.jonahmiller5.integrations.slack;
 
+import java.io.IOException;
+
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 
@@ -60,6 +62,7 @@ public class SlackBlockSection extends SlackBlock {
         
         fields[numFields] = newField;
         numFields++;
+        this.changed();
         
         return true;
     }
@@ -67,6 +70,7 @@ public class SlackBlockSection extends SlackBlock {
     public void clearFields() {
         this.fields = new SlackMCOText[MAX_FIELDS];
         this.numFields = 0;
+        this.changed();
     }
     
     public boolean updateText(SlackMCOText newText) {
@@ -76,6 +80,7 @@ public class SlackBlockSection extends SlackBlock {
         
         newText.cutToMaxLength(TEXT_MAX_LENGTH);
         this.text = newText;
+        this.changed();
         
         return true;
     }
@@ -86,6 +91,7 @@ public class SlackBlockSection extends SlackBlock {
         }
         
         this.accessory = newAccessory;
+        this.changed();
         
         return true;
     }
@@ -117,5 +123,34 @@ public class SlackBlockSection extends SlackBlock {
         
         return result;
     }
+
+    @Override
+    public void writeJson(SlackJsonWriter out) throws IOException {
+        out.beginObject();
+        out.name(SlackJsonKey.TYPE).value(this.type);
+        out.name(SlackJsonKey.TEXT);
+        this.text.writeJson(out);
+        
+        if (this.block_id != null) {
+            out.name(SlackJsonKey.BLOCK_ID).value(this.block_id);
+        }
+        
+        if (this.fields != null && this.numFields != 0) {
+            out.name(SlackJsonKey.FIELDS).beginArray();
+            for (SlackMCOText field : fields) {
+                if (field != null) {
+                    field.writeJson(out);
+                }
+            }
+            out.endArray();
+        }
+        
+        if (this.accessory != null) {
+            out.name(SlackJsonKey.ACCESSORY);
+            this.accessory.writeJson(out);
+        }
+        
+        out.endObject();
+    }
     
 }
@@ -0,0 +1,70 @@
+package net.jonahmiller5.integrations.slack;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An encoded request body, split in segments that are sent back to back
+ *
+ * Keeps the size the same body would have taken as a form post, so JSON posts can report the
+ * bytes they saved.
+ */
+final class SlackBody implements SlackPooledConnection.Body {
+
+	private final SlackBodyMode mode;
+	private final List<byte[]> segments;
+	private final long size;
+	private final long formSize;
+
+	SlackBody(SlackBodyMode mode, byte[] segment, long formSize) {
+		this(mode, Collections.singletonList(segment), segment.length, formSize);
+	}
+
+	private SlackBody(SlackBodyMode mode, List<byte[]> segments, long size, long formSize) {
+		this.mode = mode;
+		this.segments = segments;
+		this.size = size;
+		this.formSize = formSize;
+	}
+
+	/**
+	 * @return this body followed by the other one, which must be in the same mode
+	 */
+	SlackBody concat(SlackBody tail) {
+		if (tail.mode != mode) {
+			throw new IllegalArgumentException("Invalid Body Mode @ SlackBody");
+		}
+
+		final List<byte[]> joined = new ArrayList<byte[]>(segments.size() + tail.segments.size());
+		joined.addAll(segments);
+		joined.addAll(tail.segments);
+
+		return new SlackBody(mode, joined, size + tail.size, formSize + tail.formSize);
+	}
+
+	@Override
+	public void writeTo(OutputStream out) throws IOException {
+		for (byte[] segment : segments) {
+			out.write(segment);
+		}
+	}
+
+	SlackBodyMode getMode() {
+		return mode;
+	}
+
+	List<byte[]> getSegments() {
+		return segments;
+	}
+
+	long getSize() {
+		return size;
+	}
+
+	long getFormSize() {
+		return formSize;
+	}
+}
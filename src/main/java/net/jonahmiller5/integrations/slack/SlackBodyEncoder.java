@@ -0,0 +1,450 @@
+package net.jonahmiller5.integrations.slack;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Writer that encodes the characters written to it as UTF-8 straight into an output stream,
+ * form-urlencoded or as they are depending on the SlackBodyMode
+ *
+ * Messages write their own JSON as UTF-8 through a pooled SlackJsonWriter, which the encoder
+ * passes on as it is or form-encodes a byte at a time, so a post goes from the model to the
+ * connection without the Gson tree, the JSON string, the urlencoded string or the byte array
+ * copies. Prepared Gson trees are serialized into this writer by Gson.
+ * Form output is byte for byte what URLEncoder.encode(message.toString(), "UTF-8") gives. Either
+ * way the encoder also counts what the form encoding takes, so JSON posts know how many bytes
+ * they saved.
+ */
+final class SlackBodyEncoder extends Writer {
+
+	private static final byte[] PAYLOAD = { 'p', 'a', 'y', 'l', 'o', 'a', 'd', '=' };
+	private static final byte[] HEX = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F' };
+	private static final boolean[] UNRESERVED = new boolean[128];
+	private static final int BUFFER_SIZE = 8192;
+	private static final int SIZE_HINT = 1024;
+
+	// Worst case for one char: a surrogate pair completing to 4 UTF-8 bytes, 3 output bytes each
+	private static final int MAX_CHAR_BYTES = 12;
+
+	// Worst case for one UTF-8 byte: %XX
+	private static final int MAX_BYTE_WIDTH = 3;
+
+	/** Output bytes per UTF-8 byte when form-encoded: 1 for unreserved chars and space, 3 for %XX */
+	private static final byte[] FORM_WIDTH = new byte[256];
+
+	// Same settings JsonElement.toString uses: nulls kept, no HTML escaping
+	private static final Gson GSON = new GsonBuilder().serializeNulls().disableHtmlEscaping().create();
+
+	static {
+		for (char c = 'a'; c <= 'z'; c++) {
+			UNRESERVED[c] = true;
+		}
+		for (char c = 'A'; c <= 'Z'; c++) {
+			UNRESERVED[c] = true;
+		}
+		for (char c = '0'; c <= '9'; c++) {
+			UNRESERVED[c] = true;
+		}
+		UNRESERVED['.'] = true;
+		UNRESERVED['-'] = true;
+		UNRESERVED['*'] = true;
+		UNRESERVED['_'] = true;
+
+		for (int b = 0; b < 256; b++) {
+			FORM_WIDTH[b] = (byte) (b < 128 && (UNRESERVED[b] || b == ' ') ? 1 : 3);
+		}
+	}
+
+	private final OutputStream out;
+	private final boolean form;
+	private final byte[] buffer;
+
+	private int position;
+	private char pendingHigh;
+	private long size;
+	private long formSize;
+
+	SlackBodyEncoder(OutputStream out, SlackBodyMode mode) {
+		this(out, mode, new byte[BUFFER_SIZE]);
+	}
+
+	private SlackBodyEncoder(OutputStream out, SlackBodyMode mode, byte[] buffer) {
+		this.out = out;
+		this.form = mode == SlackBodyMode.FORM;
+		this.buffer = buffer;
+	}
+
+	/**
+	 * Write the body Slack's webhooks expect to the stream: payload=&lt;urlencoded JSON&gt; in
+	 * FORM mode, the JSON itself in JSON mode. The stream is flushed but not closed.
+	 *
+	 * The message writes its own JSON as UTF-8 into a pooled SlackJsonWriter, which goes to the
+	 * stream as it is in JSON mode and through the writer's spare buffer in FORM mode, so nothing
+	 * is allocated per message once the pool is warm. A message that fails to serialize sends
+	 * nothing.
+	 *
+	 * @return the closed encoder, for its sizes
+	 */
+	static SlackBodyEncoder write(SlackMessage message, SlackBodyMode mode, OutputStream out) throws IOException {
+		final SlackEncodeEvent event = SlackEncodeEvent.enabled() ? new SlackEncodeEvent() : null;
+		if (event != null) {
+			event.begin();
+		}
+
+		final SlackJsonWriter json = SlackJsonWriter.acquire();
+		final SlackBodyEncoder encoder;
+		try {
+			message.writeJson(json);
+			encoder = new SlackBodyEncoder(out, mode, json.scratch(BUFFER_SIZE));
+			encoder.writePayloadKey();
+			encoder.writeUtf8(json.buffer(), json.size());
+			encoder.close();
+		} finally {
+			json.release();
+		}
+
+		encoded(event, mode, encoder.getSize(), encoder.getFormSize(), !(out instanceof ByteArrayOutputStream));
+		return encoder;
+	}
+
+	/**
+	 * Write the body for an already prepared message, serialized by Gson
+	 *
+	 * @return the closed encoder, for its sizes
+	 */
+	static SlackBodyEncoder write(JsonElement message, SlackBodyMode mode, OutputStream out) throws IOException {
+		final SlackEncodeEvent event = SlackEncodeEvent.enabled() ? new SlackEncodeEvent() : null;
+		if (event != null) {
+			event.begin();
+		}
+
+		final SlackBodyEncoder encoder = new SlackBodyEncoder(out, mode);
+		encoder.writePayloadKey();
+		encoder.writeJson(message);
+		encoder.close();
+
+		encoded(event, mode, encoder.getSize(), encoder.getFormSize(), !(out instanceof ByteArrayOutputStream));
+		return encoder;
+	}
+
+	private static void encoded(SlackEncodeEvent event, SlackBodyMode mode, long size, long formSize, boolean streamed) {
+		if (event != null) {
+			event.mode = mode.name();
+			event.bodySize = size;
+			event.formSize = formSize;
+			event.streamed = streamed;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Encode a whole message body in memory. The JSON is serialized into a pooled buffer and
+	 * copied or form-encoded once into an array of exactly the body's size, which is all that is
+	 * allocated once the pool is warm.
+	 */
+	static SlackBody encode(SlackMessage message, SlackBodyMode mode) throws IOException {
+		final SlackEncodeEvent event = SlackEncodeEvent.enabled() ? new SlackEncodeEvent() : null;
+		if (event != null) {
+			event.begin();
+		}
+
+		final SlackJsonWriter json = SlackJsonWriter.acquire();
+		try {
+			message.writeJson(json);
+			return body(json, mode, event);
+		} finally {
+			json.release();
+		}
+	}
+
+	/**
+	 * Render a template body in memory, the same way as a message
+	 */
+	static SlackBody encode(SlackTemplate template, Map<String, ?> values, SlackBodyMode mode) throws IOException {
+		final SlackEncodeEvent event = SlackEncodeEvent.enabled() ? new SlackEncodeEvent() : null;
+		if (event != null) {
+			event.begin();
+		}
+
+		final SlackJsonWriter json = SlackJsonWriter.acquire();
+		try {
+			template.writeJson(json, values);
+			return body(json, mode, event);
+		} finally {
+			json.release();
+		}
+	}
+
+	/**
+	 * Copy or form-encode the JSON in the writer into a body of exactly its size
+	 */
+	private static SlackBody body(SlackJsonWriter json, SlackBodyMode mode, SlackEncodeEvent event) {
+		final byte[] utf8 = json.buffer();
+		final int length = json.size();
+		final long formSize = PAYLOAD.length + formSize(utf8, length);
+		final byte[] body;
+		if (mode == SlackBodyMode.FORM) {
+			body = new byte[(int) formSize];
+			System.arraycopy(PAYLOAD, 0, body, 0, PAYLOAD.length);
+			formEncode(utf8, 0, length, body, PAYLOAD.length);
+		} else {
+			body = Arrays.copyOf(utf8, length);
+		}
+
+		encoded(event, mode, body.length, formSize, false);
+		return new SlackBody(mode, body, formSize);
+	}
+
+	/**
+	 * Encode a whole body for an already prepared message in memory
+	 */
+	static SlackBody encode(JsonElement message, SlackBodyMode mode) throws IOException {
+		final ByteArrayOutputStream body = new ByteArrayOutputStream(SIZE_HINT);
+		final SlackBodyEncoder encoder = write(message, mode, body);
+
+		return new SlackBody(mode, body.toByteArray(), encoder.getFormSize());
+	}
+
+	/**
+	 * @return bytes the UTF-8 text takes form-urlencoded
+	 */
+	private static long formSize(byte[] utf8, int length) {
+		long result = 0;
+		for (int i = 0; i < length; i++) {
+			result += FORM_WIDTH[utf8[i] & 0xFF];
+		}
+
+		return result;
+	}
+
+	/**
+	 * Form-urlencode UTF-8 text into the array, which must have room for it
+	 *
+	 * @return the index after the last byte written
+	 */
+	private static int formEncode(byte[] utf8, int offset, int end, byte[] into, int at) {
+		for (int i = offset; i < end; i++) {
+			final int b = utf8[i] & 0xFF;
+			if (FORM_WIDTH[b] == 1) {
+				into[at++] = b == ' ' ? (byte) '+' : (byte) b;
+			} else {
+				into[at++] = '%';
+				into[at++] = HEX[b >> 4];
+				into[at++] = HEX[b & 0xF];
+			}
+		}
+
+		return at;
+	}
+
+	/**
+	 * Encode the leading part of a body, i.e. the payload key in FORM mode and a JSON fragment
+	 */
+	static SlackBody encodePrefix(String json, SlackBodyMode mode) throws IOException {
+		return encode(json, mode, true);
+	}
+
+	/**
+	 * Encode a trailing part of a body, i.e. a JSON fragment
+	 */
+	static SlackBody encodeFragment(String json, SlackBodyMode mode) throws IOException {
+		return encode(json, mode, false);
+	}
+
+	private static SlackBody encode(String json, SlackBodyMode mode, boolean prefix) throws IOException {
+		final int estimate = mode == SlackBodyMode.FORM ? json.length() * 3 : json.length();
+		final ByteArrayOutputStream body = new ByteArrayOutputStream(estimate + PAYLOAD.length);
+		final SlackBodyEncoder encoder = new SlackBodyEncoder(body, mode);
+		if (prefix) {
+			encoder.writePayloadKey();
+		}
+		encoder.write(json);
+		encoder.close();
+
+		return new SlackBody(mode, body.toByteArray(), encoder.getFormSize());
+	}
+
+	/**
+	 * Start a form body with its payload key. JSON bodies have none, but still count it as what
+	 * the form body would have taken.
+	 */
+	void writePayloadKey() throws IOException {
+		formSize += PAYLOAD.length;
+		if (form) {
+			drain();
+			out.write(PAYLOAD);
+			size += PAYLOAD.length;
+		}
+	}
+
+	/**
+	 * Serialize the element into this writer
+	 */
+	void writeJson(JsonElement json) throws IOException {
+		try {
+			GSON.toJson(json, new JsonWriter(this));
+		} catch (JsonIOException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Write text that is already UTF-8, e.g. from a SlackJsonWriter
+	 */
+	void writeUtf8(byte[] utf8, int length) throws IOException {
+		formSize += formSize(utf8, length);
+		if (!form) {
+			drain();
+			out.write(utf8, 0, length);
+			size += length;
+			return;
+		}
+
+		int i = 0;
+		while (i < length) {
+			if (position > BUFFER_SIZE - MAX_BYTE_WIDTH) {
+				drain();
+			}
+
+			final int end = Math.min(length, i + (BUFFER_SIZE - position) / MAX_BYTE_WIDTH);
+			position = formEncode(utf8, i, end, buffer, position);
+			i = end;
+		}
+	}
+
+	@Override
+	public void write(int c) throws IOException {
+		encode((char) c);
+	}
+
+	@Override
+	public void write(char[] chars, int offset, int length) throws IOException {
+		final int end = offset + length;
+		for (int i = offset; i < end; i++) {
+			encode(chars[i]);
+		}
+	}
+
+	@Override
+	public void write(String string, int offset, int length) throws IOException {
+		final int end = offset + length;
+		for (int i = offset; i < end; i++) {
+			encode(string.charAt(i));
+		}
+	}
+
+	private void encode(char c) throws IOException {
+		if (position > BUFFER_SIZE - MAX_CHAR_BYTES) {
+			drain();
+		}
+
+		if (pendingHigh != 0) {
+			final char high = pendingHigh;
+			pendingHigh = 0;
+			if (Character.isLowSurrogate(c)) {
+				final int codePoint = Character.toCodePoint(high, c);
+				put(0xF0 | (codePoint >> 18));
+				put(0x80 | ((codePoint >> 12) & 0x3F));
+				put(0x80 | ((codePoint >> 6) & 0x3F));
+				put(0x80 | (codePoint & 0x3F));
+				return;
+			}
+
+			// Unpaired high surrogate, UTF-8 encodes it as '?'
+			put('?');
+		}
+
+		if (c < 128) {
+			if (UNRESERVED[c]) {
+				formSize++;
+				buffer[position++] = (byte) c;
+			} else if (c == ' ') {
+				formSize++;
+				buffer[position++] = form ? (byte) '+' : (byte) ' ';
+			} else {
+				put(c);
+			}
+		} else if (c < 0x800) {
+			put(0xC0 | (c >> 6));
+			put(0x80 | (c & 0x3F));
+		} else if (Character.isHighSurrogate(c)) {
+			pendingHigh = c;
+		} else if (Character.isLowSurrogate(c)) {
+			put('?');
+		} else {
+			put(0xE0 | (c >> 12));
+			put(0x80 | ((c >> 6) & 0x3F));
+			put(0x80 | (c & 0x3F));
+		}
+	}
+
+	/**
+	 * Put one UTF-8 byte that the form encoding has to escape
+	 */
+	private void put(int b) {
+		formSize += 3;
+		if (form) {
+			buffer[position++] = '%';
+			buffer[position++] = HEX[(b >> 4) & 0xF];
+			buffer[position++] = HEX[b & 0xF];
+		} else {
+			buffer[position++] = (byte) b;
+		}
+	}
+
+	private void drain() throws IOException {
+		if (position > 0) {
+			out.write(buffer, 0, position);
+			size += position;
+			position = 0;
+		}
+	}
+
+	/**
+	 * Push buffered bytes to the stream. A high surrogate still waiting for its pair is held back.
+	 */
+	@Override
+	public void flush() throws IOException {
+		drain();
+		out.flush();
+	}
+
+	/**
+	 * Finish the encoded text and flush it. The underlying stream is left open.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (pendingHigh != 0) {
+			pendingHigh = 0;
+			put('?');
+		}
+		flush();
+	}
+
+	/**
+	 * @return bytes pushed to the stream so far
+	 */
+	long getSize() {
+		return size;
+	}
+
+	/**
+	 * @return bytes the same text takes form-urlencoded, payload key included
+	 */
+	long getFormSize() {
+		return formSize;
+	}
+}
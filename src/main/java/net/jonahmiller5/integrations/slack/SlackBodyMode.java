@@ -0,0 +1,11 @@
+package net.jonahmiller5.integrations.slack;
+
+/**
+ * How SlackApi puts a message on the wire
+ */
+public enum SlackBodyMode {
+	/** payload=&lt;urlencoded JSON&gt; as application/x-www-form-urlencoded, what webhooks have always taken */
+	FORM,
+	/** The JSON itself as application/json, 30 to 200% smaller than the form body for Block Kit messages */
+	JSON
+}
@@ -0,0 +1,45 @@
+package net.jonahmiller5.integrations.slack;
+
+/**
+ * Outcome of a broadcast for a single target
+ */
+public class SlackBroadcastResult {
+
+	private final SlackTarget target;
+	private final SlackResponse response;
+	private final Throwable error;
+
+	SlackBroadcastResult(SlackTarget target, SlackResponse response, Throwable error) {
+		this.target = target;
+		this.response = response;
+		this.error = error;
+	}
+
+	public SlackTarget getTarget() {
+		return target;
+	}
+
+	/**
+	 * @return Slack's answer, or the answer carried by the failure if Slack rejected the post
+	 */
+	public SlackResponse getResponse() {
+		if (response == null && error instanceof SlackException) {
+			return ((SlackException) error).getResponse();
+		}
+
+		return response;
+	}
+
+	public Throwable getError() {
+		return error;
+	}
+
+	public boolean isOk() {
+		return error == null;
+	}
+
+	@Override
+	public String toString() {
+		return "SlackBroadcastResult{" + "target=" + target + ", response=" + getResponse() + ", error=" + error + '}';
+	}
+}
@@ -0,0 +1,190 @@
+package net.jonahmiller5.integrations.slack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * Posts one message to many webhooks at once
+ *
+ * The message is prepared and encoded once per body mode in use. Each target only gets its own
+ * small prefix with the channel and username fields, sent ahead of the shared encoded body. At most the configured
+ * number of posts are in flight at any time; each one goes through its target's SlackApi, so
+ * rate limits and retries still apply per webhook.
+ */
+public class SlackBroadcaster {
+
+	private static final String CHANNEL = "channel";
+	private static final String USERNAME = "username";
+
+	private static final int DEFAULT_PARALLELISM = 8;
+
+	private final int parallelism;
+
+	public SlackBroadcaster() {
+		this(DEFAULT_PARALLELISM);
+	}
+
+	public SlackBroadcaster(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Invalid Parallelism @ SlackBroadcaster");
+		}
+
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Send the message to every target
+	 * 
+	 * Targets without a channel or username of their own use the message's.
+	 * 
+	 * @return results in the same order as the targets, once every post has finished
+	 */
+	public CompletableFuture<List<SlackBroadcastResult>> broadcast(SlackMessage message, List<SlackTarget> targets) {
+		if (message == null || targets == null || targets.isEmpty()) {
+			return CompletableFuture.completedFuture(Collections.<SlackBroadcastResult>emptyList());
+		}
+
+		final Broadcast broadcast;
+		try {
+			final JsonObject body = message.prepare();
+			final JsonElement channel = body.remove(CHANNEL);
+			final JsonElement username = body.remove(USERNAME);
+
+			// Everything after the opening brace is shared by all targets in the same body mode
+			final String tail = body.toString().substring(1);
+			final SlackBody[] shared = new SlackBody[SlackBodyMode.values().length];
+			final SlackBodyMode[] modes = new SlackBodyMode[targets.size()];
+			for (int i = 0; i < modes.length; i++) {
+				final SlackBodyMode mode = modes[i] = targets.get(i).getApi().getBodyMode();
+				if (shared[mode.ordinal()] == null) {
+					shared[mode.ordinal()] = SlackBodyEncoder.encodeFragment(tail, mode);
+				}
+			}
+
+			broadcast = new Broadcast(new ArrayList<SlackTarget>(targets), modes, shared,
+					channel == null ? null : channel.getAsString(), username == null ? null : username.getAsString());
+		} catch (Exception e) {
+			final CompletableFuture<List<SlackBroadcastResult>> failed = new CompletableFuture<List<SlackBroadcastResult>>();
+			failed.completeExceptionally(e instanceof SlackException ? e : new SlackException(e));
+			return failed;
+		}
+
+		final int lanes = Math.min(parallelism, broadcast.targets.size());
+		for (int i = 0; i < lanes; i++) {
+			broadcast.next();
+		}
+
+		return broadcast.done;
+	}
+
+	public CompletableFuture<List<SlackBroadcastResult>> broadcast(SlackMessage message, SlackTarget... targets) {
+		return broadcast(message, Arrays.asList(targets));
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * State of one broadcast. Every finished post starts the next pending one, which keeps the
+	 * number of posts in flight at the parallelism cap without parking a thread per lane.
+	 */
+	private static class Broadcast {
+		final List<SlackTarget> targets;
+		final SlackBodyMode[] modes;
+		final SlackBody[] shared;
+		final String channel;
+		final String username;
+
+		final SlackBroadcastResult[] results;
+		final AtomicInteger nextIndex = new AtomicInteger();
+		final AtomicInteger remaining;
+		final CompletableFuture<List<SlackBroadcastResult>> done = new CompletableFuture<List<SlackBroadcastResult>>();
+
+		Broadcast(List<SlackTarget> targets, SlackBodyMode[] modes, SlackBody[] shared, String channel,
+				String username) {
+			this.targets = targets;
+			this.modes = modes;
+			this.shared = shared;
+			this.channel = channel;
+			this.username = username;
+			this.results = new SlackBroadcastResult[targets.size()];
+			this.remaining = new AtomicInteger(targets.size());
+		}
+
+		/**
+		 * Start pending posts until one is still in flight, which starts the next when it
+		 * finishes. Posts that finish at once, e.g. refused by an open circuit or a FAIL_FAST
+		 * limiter, are taken in this loop rather than by recursion, so any number of targets runs
+		 * in constant stack.
+		 */
+		void next() {
+			for (;;) {
+				final int index = nextIndex.getAndIncrement();
+				if (index >= targets.size()) {
+					return;
+				}
+
+				final SlackTarget target = targets.get(index);
+				final SlackApi api = target.getApi();
+
+				// Each post is its own message to the target's delivery listeners
+				final long id = api.track();
+				CompletableFuture<SlackResponse> post;
+				try {
+					final long preparing = id != 0 ? System.nanoTime() : 0;
+					final SlackBodyMode mode = modes[index];
+					final SlackBody body = prefix(target, mode).concat(shared[mode.ordinal()]);
+					api.serialized(id, preparing, body.getSize());
+					post = api.sendAsync(body, id);
+				} catch (Exception e) {
+					api.dropped(id, SlackDropReason.FAILED, e);
+					post = new CompletableFuture<SlackResponse>();
+					post.completeExceptionally(e);
+				}
+
+				if (!post.isDone()) {
+					post.whenComplete((response, error) -> {
+						finish(index, target, response, error);
+						next();
+					});
+					return;
+				}
+
+				// Already complete, so this runs now and does not start another post
+				post.whenComplete((response, error) -> finish(index, target, response, error));
+			}
+		}
+
+		private void finish(int index, SlackTarget target, SlackResponse response, Throwable error) {
+			results[index] = new SlackBroadcastResult(target, response, error);
+			if (remaining.decrementAndGet() == 0) {
+				done.complete(Collections.unmodifiableList(Arrays.asList(results)));
+			}
+		}
+
+		private SlackBody prefix(SlackTarget target, SlackBodyMode mode) throws Exception {
+			final String targetChannel = target.getChannel() != null ? target.getChannel() : channel;
+			final String targetUsername = target.getUsername() != null ? target.getUsername() : username;
+
+			final StringBuilder json = new StringBuilder("{");
+			if (targetChannel != null) {
+				json.append(new JsonPrimitive(CHANNEL)).append(':').append(new JsonPrimitive(targetChannel)).append(',');
+			}
+
+			if (targetUsername != null) {
+				json.append(new JsonPrimitive(USERNAME)).append(':').append(new JsonPrimitive(targetUsername)).append(',');
+			}
+
+			return SlackBodyEncoder.encodePrefix(json.toString(), mode);
+		}
+	}
+}
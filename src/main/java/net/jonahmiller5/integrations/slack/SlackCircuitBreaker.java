@@ -0,0 +1,312 @@
+package net.jonahmiller5.integrations.slack;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Circuit breaker keyed by webhook URL
+ *
+ * After a run of consecutive failures (IO errors and 5xx answers) a webhook's circuit opens and
+ * posts to it fail at once with a SlackCircuitOpenException instead of paying a round trip to a
+ * dead endpoint. Once the open timeout has passed a single probe post is let through: if it
+ * succeeds the circuit closes, if it fails it opens again.
+ *
+ * Error codes that mean the webhook itself is gone (no_service, channel_is_archived, ...)
+ * quarantine it straight away. A quarantined webhook stays shut until reset, or until the
+ * quarantine timeout if one is set.
+ *
+ * Each key is one immutable snapshot swapped by compare-and-set, so checking a circuit is a map
+ * lookup and a volatile read, and one breaker can be shared by every SlackApi in a service.
+ */
+public class SlackCircuitBreaker {
+
+	private static final int DEFAULT_FAILURE_THRESHOLD = 5;
+	private static final long DEFAULT_OPEN_TIMEOUT = 30000;
+	private static final long DEFAULT_QUARANTINE_TIMEOUT = 0;
+
+	private static final Set<String> QUARANTINE_ERRORS = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(
+			"no_service", "no_service_id", "no_team", "team_disabled", "invalid_token", "channel_is_archived",
+			"action_prohibited")));
+
+	private static final Circuit CLOSED = new Circuit(SlackCircuitState.CLOSED, 0, 0, null);
+
+	private final ConcurrentHashMap<String, AtomicReference<Circuit>> circuits = new ConcurrentHashMap<String, AtomicReference<Circuit>>();
+	private final AtomicLong rejected = new AtomicLong();
+	private final AtomicLong probes = new AtomicLong();
+
+	private final int failureThreshold;
+	private final long openTimeout;
+	private final long quarantineTimeout;
+
+	public SlackCircuitBreaker() {
+		this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_TIMEOUT);
+	}
+
+	public SlackCircuitBreaker(int failureThreshold, long openTimeout) {
+		this(failureThreshold, openTimeout, DEFAULT_QUARANTINE_TIMEOUT);
+	}
+
+	/**
+	 * @param failureThreshold
+	 *            consecutive failures that open a circuit
+	 * @param openTimeout
+	 *            milliseconds an open circuit waits before letting a probe through
+	 * @param quarantineTimeout
+	 *            milliseconds a quarantined circuit waits before letting a probe through, 0 to
+	 *            wait for reset
+	 */
+	public SlackCircuitBreaker(int failureThreshold, long openTimeout, long quarantineTimeout) {
+		if (failureThreshold < 1) {
+			throw new IllegalArgumentException("Invalid Failure Threshold @ SlackCircuitBreaker");
+		}
+
+		if (openTimeout < 0 || quarantineTimeout < 0) {
+			throw new IllegalArgumentException("Invalid Timeout @ SlackCircuitBreaker");
+		}
+
+		this.failureThreshold = failureThreshold;
+		this.openTimeout = openTimeout;
+		this.quarantineTimeout = quarantineTimeout;
+	}
+
+	/**
+	 * Ask whether a post to the key may go out. Past the open or quarantine timeout the first
+	 * caller is let through as the probe.
+	 * 
+	 * @return false if the circuit is shut, in which case the post must not be sent
+	 */
+	public boolean allow(String key) {
+		final AtomicReference<Circuit> circuit = circuits.get(key);
+		if (circuit == null) {
+			return true;
+		}
+
+		while (true) {
+			final Circuit current = circuit.get();
+			final long now = System.nanoTime();
+
+			final long wait;
+			switch (current.state) {
+			case CLOSED:
+				return true;
+			case QUARANTINED:
+				wait = quarantineTimeout == 0 ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(quarantineTimeout);
+				break;
+			default:
+				// A probe that never reported back counts as lost after the same timeout
+				wait = TimeUnit.MILLISECONDS.toNanos(openTimeout);
+			}
+
+			if (now - current.since < wait) {
+				rejected.incrementAndGet();
+				return false;
+			}
+
+			if (circuit.compareAndSet(current, new Circuit(SlackCircuitState.HALF_OPEN, current.failures, now, current.reason))) {
+				probes.incrementAndGet();
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * @return the exception to throw for a post the circuit did not allow
+	 */
+	public SlackCircuitOpenException rejection(String key) {
+		final AtomicReference<Circuit> circuit = circuits.get(key);
+		final Circuit current = circuit == null ? CLOSED : circuit.get();
+		return new SlackCircuitOpenException(current.state, current.reason);
+	}
+
+	/**
+	 * Record a post the webhook took
+	 */
+	public void onSuccess(String key) {
+		final AtomicReference<Circuit> circuit = circuits.get(key);
+		if (circuit == null) {
+			return;
+		}
+
+		while (true) {
+			final Circuit current = circuit.get();
+			// A post that was in flight when the circuit was quarantined does not lift it, only a probe does
+			if (current == CLOSED || current.state == SlackCircuitState.QUARANTINED) {
+				return;
+			}
+
+			if (circuit.compareAndSet(current, CLOSED)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Record a failed post. Answers that prove the webhook is alive (other 4xx, 429) count as
+	 * success; error codes that mean it is gone quarantine it.
+	 */
+	public void onFailure(String key, Throwable failure) {
+		final SlackResponse response = failure instanceof SlackException ? ((SlackException) failure).getResponse() : null;
+		final String code = response == null ? null : response.getErrorCode();
+
+		if (isQuarantineError(code)) {
+			quarantine(key, code);
+			return;
+		}
+
+		if (response != null && response.getStatusCode() < 500) {
+			onSuccess(key);
+			return;
+		}
+
+		final AtomicReference<Circuit> circuit = circuit(key);
+		while (true) {
+			final Circuit current = circuit.get();
+			final Circuit next;
+			switch (current.state) {
+			case CLOSED:
+				next = current.failures + 1 >= failureThreshold
+						? new Circuit(SlackCircuitState.OPEN, current.failures + 1, System.nanoTime(), code)
+						: new Circuit(SlackCircuitState.CLOSED, current.failures + 1, 0, code);
+				break;
+			case HALF_OPEN:
+				// A failed probe shuts the circuit the way it was shut before
+				next = new Circuit(isQuarantineError(current.reason) ? SlackCircuitState.QUARANTINED
+						: SlackCircuitState.OPEN, current.failures + 1, System.nanoTime(), current.reason);
+				break;
+			default:
+				// Already shut, a late failure changes nothing
+				return;
+			}
+
+			if (circuit.compareAndSet(current, next)) {
+				return;
+			}
+		}
+	}
+
+	private void quarantine(String key, String code) {
+		final AtomicReference<Circuit> circuit = circuit(key);
+		while (true) {
+			final Circuit current = circuit.get();
+			if (circuit.compareAndSet(current,
+					new Circuit(SlackCircuitState.QUARANTINED, current.failures + 1, System.nanoTime(), code))) {
+				return;
+			}
+		}
+	}
+
+	private AtomicReference<Circuit> circuit(String key) {
+		AtomicReference<Circuit> circuit = circuits.get(key);
+		if (circuit == null) {
+			final AtomicReference<Circuit> fresh = new AtomicReference<Circuit>(CLOSED);
+			circuit = circuits.putIfAbsent(key, fresh);
+			if (circuit == null) {
+				circuit = fresh;
+			}
+		}
+
+		return circuit;
+	}
+
+	/**
+	 * Close the key's circuit, e.g. after a quarantined webhook has been fixed
+	 */
+	public void reset(String key) {
+		circuits.remove(key);
+	}
+
+	public SlackCircuitState getState(String key) {
+		final AtomicReference<Circuit> circuit = circuits.get(key);
+		return circuit == null ? SlackCircuitState.CLOSED : circuit.get().state;
+	}
+
+	/**
+	 * @return consecutive failures recorded for the key
+	 */
+	public int getFailureCount(String key) {
+		final AtomicReference<Circuit> circuit = circuits.get(key);
+		return circuit == null ? 0 : circuit.get().failures;
+	}
+
+	/**
+	 * @return last Slack error code recorded for the key, e.g. why it was quarantined, or null
+	 */
+	public String getReason(String key) {
+		final AtomicReference<Circuit> circuit = circuits.get(key);
+		return circuit == null ? null : circuit.get().reason;
+	}
+
+	/**
+	 * @return every key whose circuit is not closed, with its state
+	 */
+	public Map<String, SlackCircuitState> getStates() {
+		final Map<String, SlackCircuitState> states = new LinkedHashMap<String, SlackCircuitState>();
+		for (Map.Entry<String, AtomicReference<Circuit>> entry : circuits.entrySet()) {
+			final SlackCircuitState state = entry.getValue().get().state;
+			if (state != SlackCircuitState.CLOSED) {
+				states.put(entry.getKey(), state);
+			}
+		}
+
+		return Collections.unmodifiableMap(states);
+	}
+
+	/**
+	 * @return true if Slack's error code means the webhook itself is gone
+	 */
+	public static boolean isQuarantineError(String errorCode) {
+		return errorCode != null && QUARANTINE_ERRORS.contains(errorCode);
+	}
+
+	public int getFailureThreshold() {
+		return failureThreshold;
+	}
+
+	public long getOpenTimeout() {
+		return openTimeout;
+	}
+
+	public long getQuarantineTimeout() {
+		return quarantineTimeout;
+	}
+
+	/**
+	 * @return posts failed fast by a shut circuit
+	 */
+	public long getRejectedCount() {
+		return rejected.get();
+	}
+
+	public long getProbeCount() {
+		return probes.get();
+	}
+
+	@Override
+	public String toString() {
+		return "SlackCircuitBreaker{" + "failureThreshold=" + failureThreshold + ", openTimeout=" + openTimeout
+				+ ", quarantineTimeout=" + quarantineTimeout + ", circuits=" + circuits.size() + ", rejected="
+				+ rejected + ", probes=" + probes + '}';
+	}
+
+	private static class Circuit {
+		final SlackCircuitState state;
+		final int failures;
+		final long since;
+		final String reason;
+
+		Circuit(SlackCircuitState state, int failures, long since, String reason) {
+			this.state = state;
+			this.failures = failures;
+			this.since = since;
+			this.reason = reason;
+		}
+	}
+}
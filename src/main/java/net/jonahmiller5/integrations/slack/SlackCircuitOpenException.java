@@ -0,0 +1,36 @@
+package net.jonahmiller5.integrations.slack;
+
+/**
+ * Thrown instead of posting to a webhook whose circuit is open or quarantined
+ *
+ * Carries no stack trace, so rejecting a post costs next to nothing.
+ */
+public class SlackCircuitOpenException extends SlackException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final SlackCircuitState state;
+	private final String reason;
+
+	public SlackCircuitOpenException(SlackCircuitState state, String reason) {
+		super("Circuit " + state + (reason == null ? "" : " (" + reason + ")") + " @ SlackApi");
+		this.state = state;
+		this.reason = reason;
+	}
+
+	public SlackCircuitState getState() {
+		return state;
+	}
+
+	/**
+	 * @return Slack error code that opened or quarantined the circuit, or null
+	 */
+	public String getReason() {
+		return reason;
+	}
+
+	@Override
+	public Throwable fillInStackTrace() {
+		return this;
+	}
+}
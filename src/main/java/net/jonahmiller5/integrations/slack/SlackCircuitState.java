@@ -0,0 +1,15 @@
+package net.jonahmiller5.integrations.slack;
+
+/**
+ * State of a webhook's circuit in a SlackCircuitBreaker
+ */
+public enum SlackCircuitState {
+	/** Posts go through */
+	CLOSED,
+	/** Too many consecutive failures, posts fail at once until the open timeout has passed */
+	OPEN,
+	/** A single probe post is in flight to find out whether the webhook has recovered */
+	HALF_OPEN,
+	/** Slack said the webhook itself is gone (no_service, channel_is_archived, ...), posts fail until reset */
+	QUARANTINED
+}
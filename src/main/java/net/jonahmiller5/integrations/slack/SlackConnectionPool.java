@@ -0,0 +1,315 @@
+package net.jonahmiller5.integrations.slack;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.Proxy;
+import java.net.URL;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keep-alive connection pool for webhook posts
+ *
+ * Connections are kept per route (host, port and proxy), so one pool can be shared by every
+ * SlackApi that posts to hooks.slack.com. Configure the pool before handing it to a SlackApi.
+ *
+ * As a SlackTransport, async posts run on virtual threads (JDK 21+) over the pooled connections.
+ *
+ * Usage: new SlackApi(url).setConnectionPool(new SlackConnectionPool().setMaxConnections(16))
+ */
+public class SlackConnectionPool implements SlackTransport {
+
+	private static final int DEFAULT_MAX_CONNECTIONS = 8;
+	private static final long DEFAULT_IDLE_TIMEOUT = 30000;
+	private static final long DEFAULT_MAX_LIFETIME = 300000;
+
+	private final ConcurrentHashMap<String, Deque<SlackPooledConnection>> idle = new ConcurrentHashMap<String, Deque<SlackPooledConnection>>();
+	private final AtomicInteger idleCount = new AtomicInteger();
+
+	private final AtomicLong requests = new AtomicLong();
+	private final AtomicLong created = new AtomicLong();
+	private final AtomicLong reused = new AtomicLong();
+	private final AtomicLong evicted = new AtomicLong();
+
+	private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+	private long idleTimeout = DEFAULT_IDLE_TIMEOUT;
+	private long maxLifetime = DEFAULT_MAX_LIFETIME;
+	private Semaphore leases = new Semaphore(DEFAULT_MAX_CONNECTIONS);
+	private volatile boolean closed;
+
+	public SlackConnectionPool() {
+	}
+
+	/**
+	 * @param maxConnections
+	 *            maximum connections in use at once, and maximum kept idle
+	 * @return SlackConnectionPool
+	 */
+	public SlackConnectionPool setMaxConnections(int maxConnections) {
+		if (maxConnections < 1) {
+			throw new IllegalArgumentException("Invalid Max Connections @ SlackConnectionPool");
+		}
+
+		this.maxConnections = maxConnections;
+		this.leases = new Semaphore(maxConnections);
+
+		return this;
+	}
+
+	/**
+	 * @param idleTimeout
+	 *            milliseconds an unused connection is kept before it is evicted
+	 * @return SlackConnectionPool
+	 */
+	public SlackConnectionPool setIdleTimeout(long idleTimeout) {
+		if (idleTimeout < 0) {
+			throw new IllegalArgumentException("Invalid Idle Timeout @ SlackConnectionPool");
+		}
+
+		this.idleTimeout = idleTimeout;
+
+		return this;
+	}
+
+	/**
+	 * @param maxLifetime
+	 *            milliseconds after which a connection is retired even if it is still healthy
+	 * @return SlackConnectionPool
+	 */
+	public SlackConnectionPool setMaxLifetime(long maxLifetime) {
+		if (maxLifetime < 0) {
+			throw new IllegalArgumentException("Invalid Max Lifetime @ SlackConnectionPool");
+		}
+
+		this.maxLifetime = maxLifetime;
+
+		return this;
+	}
+
+	public int getMaxConnections() {
+		return maxConnections;
+	}
+
+	public long getIdleTimeout() {
+		return idleTimeout;
+	}
+
+	public long getMaxLifetime() {
+		return maxLifetime;
+	}
+
+	@Override
+	public SlackResponse send(SlackRequest request) throws IOException {
+		return post(new URL(request.getUrl()), request.getProxy(), request.getTimeout(), request.getContentType(),
+				request.getContentLength(), new SlackPooledConnection.Body() {
+					@Override
+					public void writeTo(OutputStream out) throws IOException {
+						request.writeTo(out);
+					}
+				}, request.getEvent());
+	}
+
+	/**
+	 * POST a body over a pooled connection, opening one if none is idle for the route
+	 */
+	SlackResponse post(URL url, Proxy proxy, int timeout, String contentType, final byte[] body) throws IOException {
+		return post(url, proxy, timeout, contentType, body.length, new SlackPooledConnection.Body() {
+			@Override
+			public void writeTo(OutputStream out) throws IOException {
+				out.write(body);
+			}
+		}, null);
+	}
+
+	/**
+	 * POST a body that is written straight to the connection, chunked if the length is negative
+	 * 
+	 * @param event
+	 *            JFR event to fill in the connect, write and read times of, may be null
+	 */
+	SlackResponse post(URL url, Proxy proxy, int timeout, String contentType, long contentLength,
+			SlackPooledConnection.Body body, SlackSendEvent event) throws IOException {
+		final Semaphore leases = this.leases;
+		try {
+			if (!leases.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+				throw new IOException("Timed out waiting for a pooled connection");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted waiting for a pooled connection");
+		}
+
+		requests.incrementAndGet();
+
+		final String route = route(url, proxy);
+		SlackPooledConnection connection = null;
+		try {
+			connection = poll(route);
+			if (connection != null) {
+				try {
+					reused.incrementAndGet();
+					if (event != null) {
+						event.connectDuration = 0;
+					}
+					final SlackResponse response = connection.post(url, contentType, contentLength, body, event);
+					release(route, connection);
+					connection = null;
+					return response;
+				} catch (SlackPooledConnection.StaleConnectionException e) {
+					// The server dropped the idle socket, replay once on a fresh one
+					reused.decrementAndGet();
+					evicted.incrementAndGet();
+					connection.close();
+				}
+			}
+
+			final long connecting = System.nanoTime();
+			connection = SlackPooledConnection.open(url, proxy, timeout);
+			created.incrementAndGet();
+			if (event != null) {
+				event.connectDuration = System.nanoTime() - connecting;
+			}
+
+			final SlackResponse response = connection.post(url, contentType, contentLength, body, event);
+			release(route, connection);
+			connection = null;
+			return response;
+		} finally {
+			if (connection != null) {
+				connection.close();
+			}
+			leases.release();
+		}
+	}
+
+	private SlackPooledConnection poll(String route) {
+		final Deque<SlackPooledConnection> connections = idle.get(route);
+		if (connections == null) {
+			return null;
+		}
+
+		final long now = System.nanoTime();
+		SlackPooledConnection connection;
+		while ((connection = connections.pollFirst()) != null) {
+			idleCount.decrementAndGet();
+			if (!connection.isExpired(now, nanos(idleTimeout), nanos(maxLifetime))) {
+				return connection;
+			}
+
+			evicted.incrementAndGet();
+			connection.close();
+		}
+
+		return null;
+	}
+
+	private void release(String route, SlackPooledConnection connection) {
+		if (closed || !connection.isReusable()) {
+			connection.close();
+			return;
+		}
+
+		if (idleCount.incrementAndGet() > maxConnections) {
+			idleCount.decrementAndGet();
+			connection.close();
+			return;
+		}
+
+		Deque<SlackPooledConnection> connections = idle.get(route);
+		if (connections == null) {
+			final Deque<SlackPooledConnection> fresh = new ConcurrentLinkedDeque<SlackPooledConnection>();
+			connections = idle.putIfAbsent(route, fresh);
+			if (connections == null) {
+				connections = fresh;
+			}
+		}
+
+		// Most recently used first, so the warmest socket is picked next and cold ones age out
+		connections.offerFirst(connection);
+		evictExpired();
+	}
+
+	/**
+	 * Close every idle connection that outlived the idle timeout or max lifetime
+	 */
+	public void evictExpired() {
+		final long now = System.nanoTime();
+		for (Deque<SlackPooledConnection> connections : idle.values()) {
+			for (SlackPooledConnection connection : connections) {
+				if (connection.isExpired(now, nanos(idleTimeout), nanos(maxLifetime)) && connections.remove(connection)) {
+					idleCount.decrementAndGet();
+					evicted.incrementAndGet();
+					connection.close();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Close every idle connection. Connections currently in use are closed when they are released.
+	 */
+	public void close() {
+		closed = true;
+		for (Deque<SlackPooledConnection> connections : idle.values()) {
+			SlackPooledConnection connection;
+			while ((connection = connections.pollFirst()) != null) {
+				idleCount.decrementAndGet();
+				connection.close();
+			}
+		}
+	}
+
+	public long getRequestCount() {
+		return requests.get();
+	}
+
+	public long getCreatedCount() {
+		return created.get();
+	}
+
+	public long getReusedCount() {
+		return reused.get();
+	}
+
+	public long getEvictedCount() {
+		return evicted.get();
+	}
+
+	public int getIdleCount() {
+		return idleCount.get();
+	}
+
+	public int getLeasedCount() {
+		return maxConnections - leases.availablePermits();
+	}
+
+	/**
+	 * @return share of requests that went out on an already open connection
+	 */
+	public double getReuseRatio() {
+		final long total = requests.get();
+		return total == 0 ? 0 : (double) reused.get() / total;
+	}
+
+	private static String route(URL url, Proxy proxy) {
+		final int port = url.getPort() == -1 ? url.getDefaultPort() : url.getPort();
+		return url.getProtocol() + "://" + url.getHost() + ":" + port + " " + proxy;
+	}
+
+	private static long nanos(long millis) {
+		return TimeUnit.MILLISECONDS.toNanos(millis);
+	}
+
+	@Override
+	public String toString() {
+		return "SlackConnectionPool{" + "maxConnections=" + maxConnections + ", idleTimeout=" + idleTimeout
+				+ ", maxLifetime=" + maxLifetime + ", requests=" + requests + ", created=" + created + ", reused="
+				+ reused + ", evicted=" + evicted + ", idle=" + idleCount + '}';
+	}
+}
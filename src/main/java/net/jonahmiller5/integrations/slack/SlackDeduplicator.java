@@ -0,0 +1,235 @@
+package net.jonahmiller5.integrations.slack;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Suppresses repeats of a message within a time window, e.g. a flapping health check firing the
+ * same alert hundreds of times a minute
+ *
+ * Messages are compared by SlackFingerprint. Seen fingerprints live in one fixed-size,
+ * open-addressed table of longs; admitting or suppressing a message is a few volatile reads and
+ * one compare-and-set, with no lock and no allocation. When every slot a fingerprint may use is
+ * taken, the entry closest to expiry is evicted, so the table never grows past its capacity.
+ *
+ * Each entry counts how many repeats it suppressed, for as long as it stays in the table.
+ */
+public class SlackDeduplicator {
+
+	private static final long DEFAULT_TTL = 60000;
+	private static final int DEFAULT_CAPACITY = 4096;
+	private static final int MAX_CAPACITY = 1 << 26;
+
+	// Slots a fingerprint may occupy, starting at its home slot
+	private static final int PROBES = 8;
+
+	// Each slot is four longs: fingerprint, expiry in System.nanoTime, suppressed count, padding
+	private static final int STRIDE = 4;
+	private static final int KEY = 0;
+	private static final int EXPIRES = 1;
+	private static final int SUPPRESSED = 2;
+
+	private static final long EMPTY = 0;
+	private static final long LOCKED = -1;
+
+	private final AtomicLongArray table;
+	private final AtomicLong admitted = new AtomicLong();
+	private final AtomicLong suppressed = new AtomicLong();
+	private final AtomicLong evicted = new AtomicLong();
+
+	private final long ttl;
+	private final long ttlNanos;
+	private final int capacity;
+	private final int mask;
+
+	public SlackDeduplicator() {
+		this(DEFAULT_TTL);
+	}
+
+	public SlackDeduplicator(long ttl) {
+		this(ttl, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param ttl
+	 *            milliseconds after a message is admitted during which repeats are suppressed
+	 * @param capacity
+	 *            fingerprints remembered at once, rounded up to a power of two
+	 */
+	public SlackDeduplicator(long ttl, int capacity) {
+		if (ttl < 1) {
+			throw new IllegalArgumentException("Invalid TTL @ SlackDeduplicator");
+		}
+
+		if (capacity < 1 || capacity > MAX_CAPACITY) {
+			throw new IllegalArgumentException("Invalid Capacity @ SlackDeduplicator");
+		}
+
+		this.ttl = ttl;
+		this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttl);
+		this.capacity = Math.max(PROBES, Integer.highestOneBit(capacity - 1) << 1);
+		this.mask = this.capacity - 1;
+		this.table = new AtomicLongArray(this.capacity * STRIDE);
+	}
+
+	public boolean admit(SlackMessage message) {
+		return admit(SlackFingerprint.of(message));
+	}
+
+	/**
+	 * Record a message about to be sent
+	 *
+	 * @return true if it should be sent, false if the same fingerprint was admitted within the TTL
+	 */
+	public boolean admit(long fingerprint) {
+		final long key = key(fingerprint);
+		final int home = home(key);
+
+		while (true) {
+			final long now = System.nanoTime();
+			boolean busy = false;
+			int victim = -1;
+			long victimKey = EMPTY;
+			long victimRemaining = Long.MAX_VALUE;
+
+			for (int i = 0; i < PROBES; i++) {
+				final int slot = ((home + i) & mask) * STRIDE;
+				final long current = table.get(slot + KEY);
+
+				if (current == key) {
+					final long expires = table.get(slot + EXPIRES);
+					if (table.get(slot + KEY) != key) {
+						// Taken over while we looked, start again
+						busy = true;
+						break;
+					}
+
+					if (expires - now > 0) {
+						table.incrementAndGet(slot + SUPPRESSED);
+						suppressed.incrementAndGet();
+						return false;
+					}
+
+					if (table.compareAndSet(slot + EXPIRES, expires, now + ttlNanos)) {
+						admitted.incrementAndGet();
+						return true;
+					}
+
+					busy = true;
+					break;
+				}
+
+				if (current == LOCKED) {
+					// Possibly our own fingerprint being inserted by another thread
+					busy = true;
+					continue;
+				}
+
+				final long remaining = current == EMPTY ? Long.MIN_VALUE : table.get(slot + EXPIRES) - now;
+				if (remaining < victimRemaining) {
+					victim = slot;
+					victimKey = current;
+					victimRemaining = remaining;
+				}
+			}
+
+			if (busy || victim < 0) {
+				Thread.onSpinWait();
+				continue;
+			}
+
+			if (table.compareAndSet(victim + KEY, victimKey, LOCKED)) {
+				table.set(victim + EXPIRES, now + ttlNanos);
+				table.set(victim + SUPPRESSED, 0);
+				table.set(victim + KEY, key);
+
+				if (victimKey != EMPTY && victimRemaining > 0) {
+					evicted.incrementAndGet();
+				}
+				admitted.incrementAndGet();
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * @return repeats of the fingerprint suppressed since it entered the table, 0 if it is not in it
+	 */
+	public long getSuppressedCount(long fingerprint) {
+		final long key = key(fingerprint);
+		final int home = home(key);
+		for (int i = 0; i < PROBES; i++) {
+			final int slot = ((home + i) & mask) * STRIDE;
+			if (table.get(slot + KEY) == key) {
+				return table.get(slot + SUPPRESSED);
+			}
+		}
+
+		return 0;
+	}
+
+	/**
+	 * @return every fingerprint still within its TTL that suppressed at least one repeat, with its count
+	 */
+	public Map<Long, Long> getSuppressedCounts() {
+		final long now = System.nanoTime();
+		final Map<Long, Long> counts = new LinkedHashMap<Long, Long>();
+		for (int slot = 0; slot < table.length(); slot += STRIDE) {
+			final long key = table.get(slot + KEY);
+			if (key == EMPTY || key == LOCKED || table.get(slot + EXPIRES) - now <= 0) {
+				continue;
+			}
+
+			final long count = table.get(slot + SUPPRESSED);
+			if (count > 0) {
+				counts.put(key, count);
+			}
+		}
+
+		return Collections.unmodifiableMap(counts);
+	}
+
+	/**
+	 * 0 and -1 mark free and locked slots, so those two fingerprints are stored shifted
+	 */
+	private static long key(long fingerprint) {
+		return fingerprint == EMPTY || fingerprint == LOCKED ? fingerprint + 2 : fingerprint;
+	}
+
+	private int home(long key) {
+		return (int) (key ^ (key >>> 32)) & mask;
+	}
+
+	public long getTtl() {
+		return ttl;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public long getAdmittedCount() {
+		return admitted.get();
+	}
+
+	public long getSuppressedCount() {
+		return suppressed.get();
+	}
+
+	/**
+	 * @return fingerprints pushed out of the table before their TTL ran out
+	 */
+	public long getEvictedCount() {
+		return evicted.get();
+	}
+
+	@Override
+	public String toString() {
+		return "SlackDeduplicator{" + "ttl=" + ttl + ", capacity=" + capacity + ", admitted=" + admitted.get()
+				+ ", suppressed=" + suppressed.get() + ", evicted=" + evicted.get() + '}';
+	}
+}
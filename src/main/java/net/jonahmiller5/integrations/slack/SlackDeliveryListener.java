@@ -0,0 +1,79 @@
+package net.jonahmiller5.integrations.slack;
+
+/**
+ * Hooks into the life of every message sent through a SlackApi, for tracing and SLO accounting
+ *
+ * Each message gets a correlation id, unique within the JVM, when it enters call, callAsync or
+ * a SlackDispatcher, and each post of a SlackBroadcaster gets one from its target's SlackApi;
+ * every hook for that message carries it. Every hook also carries the
+ * System.nanoTime() at which the stage was reached, so listeners can take the time between any
+ * two stages. A message goes through:
+ *
+ * enqueued (dispatcher only), serialized, then per attempt sent, then acknowledged if Slack
+ * accepted it, else retried or dropped. Blocking calls and dispatchers prepare the message again
+ * for every attempt, so serialized comes before each of their attempts, unless a deduplicator or
+ * a DEFER rate limiter has them encode it once up front. Attempts that got no answer skip sent.
+ * Duplicates go to dropped once serialized, overflowing messages straight after enqueued.
+ *
+ * Hooks run on the thread that reached the stage, which for async posts is an HTTP client or
+ * timer thread, so they must be quick and must not block. Exceptions thrown from hooks are
+ * ignored. Every hook has an empty default, so listeners only implement what they need.
+ */
+public interface SlackDeliveryListener {
+
+	/**
+	 * A dispatcher accepted the message, just before offering it to its queue, so this always
+	 * comes first. If the queue refuses it, onDropped follows, or under CALLER_RUNS the send on
+	 * the submitting thread.
+	 */
+	default void onEnqueued(long id, long nanoTime, SlackMessage message) {
+	}
+
+	/**
+	 * The message was encoded, or only checked if it is streamed to the connection as it is sent
+	 *
+	 * @param elapsed
+	 *            nanoseconds spent
+	 * @param bodySize
+	 *            bytes of the encoded body, or -1 if it is encoded as it is sent
+	 */
+	default void onSerialized(long id, long nanoTime, long elapsed, long bodySize) {
+	}
+
+	/**
+	 * Slack answered an attempt, whatever the status
+	 *
+	 * @param attempt
+	 *            1 for the first attempt
+	 * @param elapsed
+	 *            nanoseconds from handing the request to the transport to having the answer
+	 */
+	default void onSent(long id, long nanoTime, int attempt, long elapsed, SlackResponse response) {
+	}
+
+	/**
+	 * Slack accepted the message; nothing more follows for this id
+	 */
+	default void onAcknowledged(long id, long nanoTime, int attempt, SlackResponse response) {
+	}
+
+	/**
+	 * An attempt failed and the message will be tried again
+	 *
+	 * @param attempt
+	 *            the attempt that is coming
+	 * @param delay
+	 *            nanoseconds of backoff before it
+	 */
+	default void onRetried(long id, long nanoTime, int attempt, long delay, Throwable cause) {
+	}
+
+	/**
+	 * The message will not reach Slack; nothing more follows for this id
+	 *
+	 * @param cause
+	 *            the last failure, or null for duplicates and dispatcher drops
+	 */
+	default void onDropped(long id, long nanoTime, SlackDropReason reason, Throwable cause) {
+	}
+}
@@ -0,0 +1,440 @@
+package net.jonahmiller5.integrations.slack;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Folds bursts of similar messages into one digest per time window, e.g. "42 occurrences of X
+ * in the last 60s" instead of 42 posts during an incident
+ *
+ * Messages are grouped by a key extractor. At the end of every window each key that saw more
+ * than one message hands a summary message, with the count and the first and last time seen, to
+ * the sink; a key that saw exactly one hands on that message as it is. Messages the extractor
+ * gives no key for are passed straight through.
+ *
+ * Each key costs a fixed amount of memory however many messages it sees: striped counters, two
+ * timestamps and the first message of the window. Past the key limit, new keys are folded into
+ * one "other" digest. Recording a message takes no lock, so many threads can feed the aggregator
+ * at once. A flush swaps a fresh window into each digest, so every message is counted in exactly
+ * one window along with that window's sample, and hands the digests to the sink after it lets go
+ * of the flush lock, so a sink that blocks holds up no other flush.
+ */
+public class SlackDigestAggregator {
+
+	private static final long DEFAULT_WINDOW = 60000;
+	private static final int DEFAULT_MAX_KEYS = 1024;
+
+	// Keys idle for this many windows in a row are forgotten
+	private static final int IDLE_WINDOWS = 2;
+
+	private static final String OTHER = "other";
+	private static final String PLAIN_TEXT = "plain_text";
+	private static final String MRKDWN = "mrkdwn";
+	private static final String DEFAULT_COLOR = "warning";
+
+	private final ConcurrentHashMap<String, Digest> digests = new ConcurrentHashMap<String, Digest>();
+	private final AtomicLong received = new AtomicLong();
+	private final AtomicLong passed = new AtomicLong();
+	private final AtomicLong forwarded = new AtomicLong();
+	private final AtomicLong summarized = new AtomicLong();
+
+	private final Consumer<SlackMessage> sink;
+	private final Function<SlackMessage, String> keyExtractor;
+	private final long window;
+	private final int maxKeys;
+	private final SlackDigestStyle style;
+	private final ScheduledExecutorService timer;
+
+	private volatile boolean running = true;
+	private volatile long windowStart = System.currentTimeMillis();
+
+	public SlackDigestAggregator(SlackDispatcher dispatcher, Function<SlackMessage, String> keyExtractor) {
+		this(dispatcher::submit, keyExtractor, DEFAULT_WINDOW, DEFAULT_MAX_KEYS, SlackDigestStyle.SECTION);
+	}
+
+	public SlackDigestAggregator(Consumer<SlackMessage> sink, Function<SlackMessage, String> keyExtractor,
+			long window) {
+		this(sink, keyExtractor, window, DEFAULT_MAX_KEYS, SlackDigestStyle.SECTION);
+	}
+
+	/**
+	 * @param sink
+	 *            where digests and passed-through messages go, e.g. SlackDispatcher::submit
+	 * @param keyExtractor
+	 *            groups messages; a null key sends the message on at once
+	 * @param window
+	 *            milliseconds each digest covers
+	 * @param maxKeys
+	 *            keys tracked at once before new ones are folded into "other"
+	 * @param style
+	 *            layout of the summary messages
+	 */
+	public SlackDigestAggregator(Consumer<SlackMessage> sink, Function<SlackMessage, String> keyExtractor,
+			long window, int maxKeys, SlackDigestStyle style) {
+		if (sink == null) {
+			throw new IllegalArgumentException("Invalid Sink @ SlackDigestAggregator");
+		}
+
+		if (keyExtractor == null) {
+			throw new IllegalArgumentException("Invalid Key Extractor @ SlackDigestAggregator");
+		}
+
+		if (window < 1) {
+			throw new IllegalArgumentException("Invalid Window @ SlackDigestAggregator");
+		}
+
+		if (maxKeys < 1) {
+			throw new IllegalArgumentException("Invalid Max Keys @ SlackDigestAggregator");
+		}
+
+		this.sink = sink;
+		this.keyExtractor = keyExtractor;
+		this.window = window;
+		this.maxKeys = maxKeys;
+		this.style = style == null ? SlackDigestStyle.SECTION : style;
+
+		this.timer = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				final Thread thread = new Thread(runnable, "slack-digest");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		this.timer.scheduleAtFixedRate(new Runnable() {
+			@Override
+			public void run() {
+				flush();
+			}
+		}, window, window, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Group messages by the title of their first titled attachment
+	 */
+	public static Function<SlackMessage, String> byAttachmentTitle() {
+		return message -> {
+			for (SlackAttachment attachment : message.getAttachments()) {
+				if (attachment.getTitle() != null) {
+					return attachment.getTitle();
+				}
+			}
+
+			return null;
+		};
+	}
+
+	/**
+	 * Group messages by the block_id of their first block with one, up to the separator, so
+	 * "disk_full:db-1" and "disk_full:db-2" share the key "disk_full"
+	 */
+	public static Function<SlackMessage, String> byBlockIdPrefix(final String separator) {
+		return message -> {
+			for (SlackBlock block : message.getBlocks()) {
+				final String blockId = block.getBlock_id();
+				if (blockId != null) {
+					final int end = blockId.indexOf(separator);
+					return end < 0 ? blockId : blockId.substring(0, end);
+				}
+			}
+
+			return null;
+		};
+	}
+
+	/**
+	 * Group messages with the same text
+	 */
+	public static Function<SlackMessage, String> byText() {
+		return SlackMessage::getText;
+	}
+
+	/**
+	 * Count a message towards its key's digest
+	 *
+	 * @return false if the aggregator is closed
+	 */
+	public boolean add(SlackMessage message) {
+		if (message == null || !running) {
+			return false;
+		}
+
+		received.incrementAndGet();
+
+		final String key = keyExtractor.apply(message);
+		if (key == null) {
+			passed.incrementAndGet();
+			sink.accept(message);
+			return true;
+		}
+
+		final long now = System.currentTimeMillis();
+		while (!digest(key).record(message, now)) {
+			// The digest was forgotten under us, record in the one that replaces it
+		}
+		return true;
+	}
+
+	private Digest digest(String key) {
+		final Digest digest = digests.get(key);
+		if (digest != null) {
+			return digest;
+		}
+
+		return digests.computeIfAbsent(digests.size() >= maxKeys ? OTHER : key, Digest::new);
+	}
+
+	/**
+	 * Close the current window: send a digest for every key that saw messages in it
+	 */
+	public void flush() {
+		final List<SlackMessage> outgoing = new ArrayList<SlackMessage>();
+		synchronized (this) {
+			final long start = windowStart;
+			final long now = System.currentTimeMillis();
+			windowStart = now;
+
+			for (Digest digest : digests.values()) {
+				final Window closed = digest.roll(new Window());
+				if (closed.count.sum() == 0) {
+					if (++digest.idle >= IDLE_WINDOWS) {
+						forget(digest, start, now, outgoing);
+					}
+					continue;
+				}
+
+				digest.idle = 0;
+				outgoing.add(close(digest.key, closed, start, now));
+			}
+		}
+
+		for (SlackMessage message : outgoing) {
+			try {
+				sink.accept(message);
+			} catch (RuntimeException e) {
+				// One failing digest must not hold back the others
+			}
+		}
+	}
+
+	/**
+	 * @return the window's only message as it is, or a summary of its messages
+	 */
+	private SlackMessage close(String key, Window window, long start, long now) {
+		final long count = window.count.sum();
+		if (count == 1) {
+			forwarded.incrementAndGet();
+			return window.sample;
+		}
+
+		summarized.incrementAndGet();
+		final long last = window.last.get();
+		return summarize(key, window.sample, count, Math.max(window.first.get(), start), last == 0 ? now : last);
+	}
+
+	private void forget(Digest digest, long start, long now, List<SlackMessage> outgoing) {
+		if (!digests.remove(digest.key, digest)) {
+			return;
+		}
+
+		// Messages that found the digest just before it was removed still go out
+		final Window late = digest.roll(null);
+		if (late.count.sum() > 0) {
+			outgoing.add(close(digest.key, late, start, now));
+		}
+	}
+
+	private SlackMessage summarize(String key, SlackMessage sample, long count, long first, long last) {
+		final String text = count + " occurrences of " + key + " in the last " + describe(window);
+		final SlackMessage summary = new SlackMessage(text);
+		if (sample != null) {
+			summary.setChannel(sample.getChannel()).setUsername(sample.getUsername()).setIcon(sample.getIcon());
+		}
+
+		if (style == SlackDigestStyle.ATTACHMENT) {
+			summary.addAttachments(new SlackAttachment(text).setTitle(key).setColor(color(sample))
+					.addFields(field("Occurrences", Long.toString(count)))
+					.addFields(field("First", format(first)))
+					.addFields(field("Last", format(last)))
+					.setTimestamp(last / 1000));
+		} else {
+			final SlackBlockSection section = new SlackBlockSection(new SlackMCOText(PLAIN_TEXT, text));
+			section.addField(new SlackMCOText(MRKDWN, "*Occurrences*\n" + count));
+			section.addField(new SlackMCOText(MRKDWN, "*First*\n" + format(first)));
+			section.addField(new SlackMCOText(MRKDWN, "*Last*\n" + format(last)));
+			summary.addBlocks(section);
+		}
+
+		return summary;
+	}
+
+	private static SlackField field(String title, String value) {
+		return new SlackField().setTitle(title).setValue(value).setShorten(true);
+	}
+
+	/**
+	 * Color of the first colored attachment of the sample, so a digest of "danger" alerts stays red
+	 */
+	private static String color(SlackMessage sample) {
+		if (sample != null) {
+			for (SlackAttachment attachment : sample.getAttachments()) {
+				if (attachment.getColor() != null) {
+					return attachment.getColor();
+				}
+			}
+		}
+
+		return DEFAULT_COLOR;
+	}
+
+	private static String format(long millis) {
+		return Instant.ofEpochMilli(millis).truncatedTo(ChronoUnit.SECONDS).toString();
+	}
+
+	private static String describe(long millis) {
+		return millis % 1000 == 0 ? millis / 1000 + "s" : millis + "ms";
+	}
+
+	/**
+	 * Stop the window timer and send what the current window has collected
+	 */
+	public void close() {
+		running = false;
+		timer.shutdownNow();
+		flush();
+	}
+
+	public boolean isRunning() {
+		return running;
+	}
+
+	public long getWindow() {
+		return window;
+	}
+
+	public int getMaxKeys() {
+		return maxKeys;
+	}
+
+	public SlackDigestStyle getStyle() {
+		return style;
+	}
+
+	public int getKeyCount() {
+		return digests.size();
+	}
+
+	public long getReceivedCount() {
+		return received.get();
+	}
+
+	/**
+	 * @return messages sent on at once because they had no key
+	 */
+	public long getPassedCount() {
+		return passed.get();
+	}
+
+	/**
+	 * @return messages sent on as they were, being the only one of their key in a window
+	 */
+	public long getForwardedCount() {
+		return forwarded.get();
+	}
+
+	public long getSummarizedCount() {
+		return summarized.get();
+	}
+
+	@Override
+	public String toString() {
+		return "SlackDigestAggregator{" + "window=" + window + ", style=" + style + ", keys=" + digests.size()
+				+ ", received=" + received + ", passed=" + passed + ", forwarded=" + forwarded + ", summarized="
+				+ summarized + '}';
+	}
+
+	/**
+	 * One key, with the window its messages are currently counted in
+	 */
+	private static class Digest {
+		final String key;
+		final AtomicReference<Window> window = new AtomicReference<Window>(new Window());
+
+		// Only touched by the flush
+		int idle;
+
+		Digest(String key) {
+			this.key = key;
+		}
+
+		/**
+		 * @return false if the digest was forgotten, in which case nothing was recorded
+		 */
+		boolean record(SlackMessage message, long now) {
+			while (true) {
+				final Window current = window.get();
+				if (current == null) {
+					return false;
+				}
+
+				// Announce the write, then check the window is still current, so roll can wait for it
+				current.writers.incrementAndGet();
+				try {
+					if (window.get() == current) {
+						current.record(message, now);
+						return true;
+					}
+				} finally {
+					current.writers.decrementAndGet();
+				}
+			}
+		}
+
+		/**
+		 * Swap in the next window, null to retire the digest, and wait for messages still being
+		 * recorded in the old one
+		 */
+		Window roll(Window next) {
+			final Window closed = window.getAndSet(next);
+			while (closed.writers.get() > 0) {
+				Thread.onSpinWait();
+			}
+
+			return closed;
+		}
+	}
+
+	/**
+	 * Running totals of one key for one window
+	 */
+	private static class Window {
+		final LongAdder count = new LongAdder();
+		final AtomicLong first = new AtomicLong();
+		final LongAccumulator last = new LongAccumulator(Math::max, 0);
+		final AtomicInteger writers = new AtomicInteger();
+
+		volatile SlackMessage sample;
+
+		void record(SlackMessage message, long now) {
+			if (first.get() == 0 && first.compareAndSet(0, now)) {
+				sample = message;
+			}
+			count.increment();
+			last.accumulate(now);
+		}
+	}
+}
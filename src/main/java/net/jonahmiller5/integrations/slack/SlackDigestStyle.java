@@ -0,0 +1,11 @@
+package net.jonahmiller5.integrations.slack;
+
+/**
+ * How a SlackDigestAggregator lays out its summary messages
+ */
+public enum SlackDigestStyle {
+	/** A Block Kit section with one field per figure */
+	SECTION,
+	/** A legacy attachment titled with the key, one short field per figure */
+	ATTACHMENT
+}
@@ -0,0 +1,498 @@
+package net.jonahmiller5.integrations.slack;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends messages through a SlackApi from background worker threads
+ *
+ * Producers only pay for an enqueue on a bounded queue; what happens when the queue is full is
+ * decided by the SlackOverflowPolicy. Failed sends are counted, not rethrown.
+ *
+ * The queue has one lane per SlackPriority, taken from the message's attachment colors unless
+ * given explicitly, so a page does not wait behind a burst of deploy notices. The
+ * SlackSchedulingPolicy decides how lanes share the workers: WEIGHTED (the default) gives each
+ * backed-up lane a share by weight, STRICT serves the highest lane first but still lets a lower
+ * lane's message through once it has waited past the starvation limit. DROP_OLDEST evicts from
+ * the lowest lane first and never evicts a higher priority message for a lower one.
+ *
+ * When the SlackApi has a retry policy, a transient failure is put back on the queue from the
+ * policy's timer once its backoff has passed, so workers never sleep through a backoff. Under a
+ * DEFER rate limiter messages leave the queue for the SlackApi's async path, which waits out
+ * their slot and retries them on its timer; they count as sent or failed once that finishes.
+ *
+ * The SlackApi's delivery listeners hear of every message from the moment it is queued, under
+ * one correlation id across its retries, including messages dropped by the overflow policy.
+ *
+ * In VIRTUAL execution mode (JDK 21+) each send runs on its own virtual thread and the worker
+ * count becomes a cap on concurrent sends, enforced by a semaphore. The library's own send path
+ * only blocks in socket IO, semaphores and parks, never inside a synchronized block, so blocked
+ * sends do not pin their carrier threads.
+ */
+public class SlackDispatcher {
+
+	private static final int DEFAULT_CAPACITY = 1024;
+	private static final int DEFAULT_WORKERS = 1;
+	private static final long POLL_INTERVAL = 100;
+	private static final long STARVATION_LIMIT = TimeUnit.SECONDS.toNanos(10);
+
+	private final SlackApi api;
+	private final SlackLaneQueue<Delivery> queue;
+	private final SlackOverflowPolicy policy;
+	private final SlackExecutionMode mode;
+	private final SlackSchedulingPolicy scheduling;
+	private final int concurrency;
+	private final Thread[] workers;
+	private final Semaphore inFlight;
+	private final ThreadFactory sendThreads;
+
+	private final AtomicLong submitted = new AtomicLong();
+	private final AtomicLong sent = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+	private final AtomicLong dropped = new AtomicLong();
+	private final AtomicLong retried = new AtomicLong();
+	private final AtomicLong suppressed = new AtomicLong();
+	private final AtomicInteger pendingRetries = new AtomicInteger();
+	private final AtomicInteger pendingDeferrals = new AtomicInteger();
+	private final AtomicInteger submitters = new AtomicInteger();
+
+	private volatile boolean running = true;
+
+	public SlackDispatcher(SlackApi api) {
+		this(api, DEFAULT_CAPACITY);
+	}
+
+	public SlackDispatcher(SlackApi api, int capacity) {
+		this(api, capacity, DEFAULT_WORKERS, SlackOverflowPolicy.BLOCK);
+	}
+
+	public SlackDispatcher(SlackApi api, int capacity, int workers, SlackOverflowPolicy policy) {
+		this(api, capacity, workers, policy, SlackExecutionMode.PLATFORM);
+	}
+
+	public SlackDispatcher(SlackApi api, int capacity, int workers, SlackOverflowPolicy policy, SlackExecutionMode mode) {
+		this(api, capacity, workers, policy, mode, SlackSchedulingPolicy.WEIGHTED);
+	}
+
+	/**
+	 * @param capacity
+	 *            messages queued at once, over all priority lanes
+	 * @param workers
+	 *            number of worker threads, or in VIRTUAL mode the most sends running at once
+	 * @param mode
+	 *            PLATFORM for a fixed pool of worker threads, VIRTUAL for a virtual thread per send
+	 * @param scheduling
+	 *            how queued messages of different priorities are ordered
+	 */
+	public SlackDispatcher(SlackApi api, int capacity, int workers, SlackOverflowPolicy policy, SlackExecutionMode mode,
+			SlackSchedulingPolicy scheduling) {
+		if (api == null) {
+			throw new IllegalArgumentException("Missing SlackApi @ SlackDispatcher");
+		}
+
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Invalid Capacity @ SlackDispatcher");
+		}
+
+		if (workers < 1) {
+			throw new IllegalArgumentException("Invalid Worker Count @ SlackDispatcher");
+		}
+
+		this.api = api;
+		this.policy = policy == null ? SlackOverflowPolicy.BLOCK : policy;
+		this.mode = mode == null ? SlackExecutionMode.PLATFORM : mode;
+		this.scheduling = scheduling == null ? SlackSchedulingPolicy.WEIGHTED : scheduling;
+		this.queue = new SlackLaneQueue<Delivery>(capacity, this.scheduling, STARVATION_LIMIT);
+		this.concurrency = workers;
+
+		if (this.mode == SlackExecutionMode.VIRTUAL) {
+			this.inFlight = new Semaphore(workers);
+			this.sendThreads = SlackVirtualThreads.factory("slack-send-");
+			this.workers = new Thread[] { SlackVirtualThreads.factory("slack-dispatcher-").newThread(new Runnable() {
+				@Override
+				public void run() {
+					pump();
+				}
+			}) };
+		} else {
+			this.inFlight = null;
+			this.sendThreads = null;
+			this.workers = new Thread[workers];
+
+			for (int i = 0; i < workers; i++) {
+				final Thread worker = new Thread(new Runnable() {
+					@Override
+					public void run() {
+						work();
+					}
+				}, "slack-dispatcher-" + i);
+				worker.setDaemon(true);
+				this.workers[i] = worker;
+			}
+		}
+
+		for (Thread worker : this.workers) {
+			worker.start();
+		}
+	}
+
+	/**
+	 * Queue a message for sending, in the lane its attachment colors give it. With a deduplicator
+	 * set on the SlackApi, repeats within its TTL are counted as suppressed by the worker that
+	 * takes them and never posted.
+	 * 
+	 * @return false if the message was dropped
+	 */
+	public boolean submit(SlackMessage message) {
+		if (message == null) {
+			return false;
+		}
+
+		return submit(message, SlackPriority.of(message));
+	}
+
+	/**
+	 * Queue a message for sending in the given lane
+	 * 
+	 * @return false if the message was dropped
+	 */
+	public boolean submit(SlackMessage message, SlackPriority priority) {
+		if (message == null) {
+			return false;
+		}
+
+		if (priority == null) {
+			priority = SlackPriority.of(message);
+		}
+
+		// Workers keep going while a submitter that saw the dispatcher running has yet to queue
+		submitters.incrementAndGet();
+		try {
+			return enqueue(message, priority);
+		} finally {
+			submitters.decrementAndGet();
+		}
+	}
+
+	private boolean enqueue(SlackMessage message, SlackPriority priority) {
+		final long id = api.track();
+		if (!running) {
+			dropped.incrementAndGet();
+			api.dropped(id, SlackDropReason.SHUTDOWN, null);
+			return false;
+		}
+
+		submitted.incrementAndGet();
+
+		// Before the offer, since a worker may take the message and report on it at once; if it is
+		// not queued after all, a drop or, under CALLER_RUNS, the send on this thread follows
+		api.enqueued(id, message);
+
+		final Delivery delivery = new Delivery(id, message, priority, null, 1, 0);
+		if (queue.offer(delivery, priority)) {
+			return true;
+		}
+
+		switch (policy) {
+		case DROP_NEWEST:
+			dropped.incrementAndGet();
+			api.dropped(id, SlackDropReason.OVERFLOW, null);
+			return false;
+
+		case DROP_OLDEST:
+			while (!queue.offer(delivery, priority)) {
+				dropped.incrementAndGet();
+				final Delivery evicted = queue.evict(priority);
+				if (evicted == null) {
+					// Only higher priority messages queued, the new one gives way
+					api.dropped(id, SlackDropReason.OVERFLOW, null);
+					return false;
+				}
+				api.dropped(evicted.id, SlackDropReason.OVERFLOW, null);
+			}
+			return true;
+
+		case CALLER_RUNS:
+			send(delivery);
+			return true;
+
+		default:
+			try {
+				queue.put(delivery, priority);
+				return true;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				dropped.incrementAndGet();
+				api.dropped(id, SlackDropReason.OVERFLOW, e);
+				return false;
+			}
+		}
+	}
+
+	private void work() {
+		while (isDraining()) {
+			final Delivery delivery;
+			try {
+				delivery = queue.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				continue;
+			}
+
+			if (delivery != null) {
+				send(delivery);
+			}
+		}
+	}
+
+	/**
+	 * VIRTUAL mode: hand every queued message to its own virtual thread, waiting for a free
+	 * permit first so at most the configured number of sends run at once
+	 */
+	private void pump() {
+		while (isDraining()) {
+			final Delivery delivery;
+			try {
+				delivery = queue.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				continue;
+			}
+
+			if (delivery == null) {
+				continue;
+			}
+
+			inFlight.acquireUninterruptibly();
+			sendThreads.newThread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						send(delivery);
+					} finally {
+						inFlight.release();
+					}
+				}
+			}).start();
+		}
+
+		// Wait for the last sends before reporting the dispatcher as drained
+		inFlight.acquireUninterruptibly(concurrency);
+		inFlight.release(concurrency);
+	}
+
+	/**
+	 * @return true while the workers have anything left to do: new submits, queued messages, or
+	 *         retries and deferred posts that have yet to come back
+	 */
+	private boolean isDraining() {
+		return running || submitters.get() > 0 || !queue.isEmpty() || pendingRetries.get() > 0
+				|| pendingDeferrals.get() > 0;
+	}
+
+	private void send(final Delivery delivery) {
+		SlackBody body = delivery.body;
+		if (body == null && (api.getDeduplicator() != null || api.isDeferring())) {
+			// Encoded once, here rather than in submit, for the fingerprint and for every attempt
+			try {
+				body = api.encode(delivery.message, delivery.id);
+			} catch (RuntimeException e) {
+				failed.incrementAndGet();
+				return;
+			}
+
+			if (api.isDuplicate(body)) {
+				suppressed.incrementAndGet();
+				api.dropped(delivery.id, SlackDropReason.DUPLICATE, null);
+				return;
+			}
+		}
+
+		// Under a DEFER rate limiter the post waits out its slot and its retries on the timer
+		if (body != null && api.isDeferring()) {
+			final CompletableFuture<SlackResponse> deferred = api.sendAsync(body, delivery.id);
+			pendingDeferrals.incrementAndGet();
+			deferred.whenComplete((response, error) -> {
+				if (error == null) {
+					sent.incrementAndGet();
+				} else {
+					failed.incrementAndGet();
+				}
+				pendingDeferrals.decrementAndGet();
+			});
+			return;
+		}
+
+		try {
+			if (body != null) {
+				api.callOnce(body, delivery.id, delivery.attempt);
+			} else {
+				api.callOnce(delivery.message, delivery.id, delivery.attempt);
+			}
+			sent.incrementAndGet();
+		} catch (SlackException e) {
+			final SlackRetryPolicy policy = api.getRetryPolicy();
+			if (policy == null || delivery.attempt >= policy.getMaxAttempts() || !policy.isRetriable(e)) {
+				failed.incrementAndGet();
+				api.dropped(delivery.id, SlackDropReason.FAILED, e);
+				return;
+			}
+
+			final Delivery retry = new Delivery(delivery.id, delivery.message, delivery.priority, body,
+					delivery.attempt + 1, policy.nextDelay(delivery.delay, e));
+			retried.incrementAndGet();
+			api.retried(retry.id, retry.attempt, retry.delay, e);
+			pendingRetries.incrementAndGet();
+			policy.schedule(retry.delay, new Runnable() {
+				@Override
+				public void run() {
+					if (!queue.offer(retry, retry.priority)) {
+						dropped.incrementAndGet();
+						api.dropped(retry.id, SlackDropReason.OVERFLOW, null);
+					}
+					pendingRetries.decrementAndGet();
+				}
+			});
+		} catch (RuntimeException e) {
+			failed.incrementAndGet();
+			api.dropped(delivery.id, SlackDropReason.FAILED, e);
+		}
+	}
+
+	/**
+	 * Stop accepting messages and wait for the queued ones to be sent, including those of
+	 * submit calls already past their running check
+	 * 
+	 * @param timeout
+	 *            milliseconds to wait for the workers to drain the queue
+	 * @return true if the queue was drained in time
+	 */
+	public boolean shutdown(long timeout) throws InterruptedException {
+		running = false;
+
+		final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+		for (Thread worker : workers) {
+			final long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+			if (remaining > 0) {
+				worker.join(remaining);
+			}
+		}
+
+		for (Thread worker : workers) {
+			if (worker.isAlive()) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	public boolean isRunning() {
+		return running;
+	}
+
+	public SlackOverflowPolicy getPolicy() {
+		return policy;
+	}
+
+	public SlackExecutionMode getMode() {
+		return mode;
+	}
+
+	public SlackSchedulingPolicy getScheduling() {
+		return scheduling;
+	}
+
+	/**
+	 * @return worker threads in PLATFORM mode, the concurrent send cap in VIRTUAL mode
+	 */
+	public int getWorkerCount() {
+		return concurrency;
+	}
+
+	/**
+	 * @return sends currently running on virtual threads, always 0 in PLATFORM mode
+	 */
+	public int getInFlightCount() {
+		return inFlight == null ? 0 : concurrency - inFlight.availablePermits();
+	}
+
+	public int getQueueDepth() {
+		return queue.size();
+	}
+
+	public int getQueueDepth(SlackPriority priority) {
+		return queue.size(priority);
+	}
+
+	public int getRemainingCapacity() {
+		return queue.remainingCapacity();
+	}
+
+	public long getSubmittedCount() {
+		return submitted.get();
+	}
+
+	public long getSentCount() {
+		return sent.get();
+	}
+
+	public long getFailedCount() {
+		return failed.get();
+	}
+
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+
+	public long getRetriedCount() {
+		return retried.get();
+	}
+
+	/**
+	 * @return messages the SlackApi's deduplicator dropped as repeats
+	 */
+	public long getSuppressedCount() {
+		return suppressed.get();
+	}
+
+	public int getPendingRetryCount() {
+		return pendingRetries.get();
+	}
+
+	/**
+	 * @return posts handed to a DEFER rate limiter's timer that have not yet succeeded or failed
+	 */
+	public int getPendingDeferralCount() {
+		return pendingDeferrals.get();
+	}
+
+	@Override
+	public String toString() {
+		return "SlackDispatcher{" + "policy=" + policy + ", mode=" + mode + ", scheduling=" + scheduling + ", workers="
+				+ concurrency + ", queueDepth=" + queue.size()
+				+ ", submitted=" + submitted + ", sent=" + sent + ", failed=" + failed + ", dropped=" + dropped
+				+ ", retried=" + retried + ", suppressed=" + suppressed + '}';
+	}
+
+	private static class Delivery {
+		final long id;
+		final SlackMessage message;
+		final SlackPriority priority;
+		/** The encoded message, once a worker has needed it, else null */
+		final SlackBody body;
+		final int attempt;
+		final long delay;
+
+		Delivery(long id, SlackMessage message, SlackPriority priority, SlackBody body, int attempt, long delay) {
+			this.id = id;
+			this.message = message;
+			this.priority = priority;
+			this.body = body;
+			this.attempt = attempt;
+			this.delay = delay;
+		}
+	}
+}
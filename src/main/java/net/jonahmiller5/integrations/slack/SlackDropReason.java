@@ -0,0 +1,15 @@
+package net.jonahmiller5.integrations.slack;
+
+/**
+ * Why a message will never reach Slack, as told to SlackDeliveryListener.onDropped
+ */
+public enum SlackDropReason {
+	/** A deduplicator found it repeats one sent within its TTL */
+	DUPLICATE,
+	/** A dispatcher queue had no room for it, or evicted it to make room */
+	OVERFLOW,
+	/** It was submitted to a dispatcher that was shutting down */
+	SHUTDOWN,
+	/** Its last attempt failed, or it could not be serialized */
+	FAILED
+}
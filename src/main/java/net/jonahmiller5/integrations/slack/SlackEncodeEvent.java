@@ -0,0 +1,47 @@
+package net.jonahmiller5.integrations.slack;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR event for encoding one prepared message into a request body
+ *
+ * Streamed bodies are encoded as they are written to the connection, so their duration includes
+ * the socket writes. Like prepare events, only those over 10 us are recorded by default.
+ */
+@Name("net.jonahmiller5.slack.Encode")
+@Label("Slack Encode")
+@Category("Slack")
+@Description("Encoding a prepared Slack message into a request body")
+@StackTrace(false)
+@Threshold("10 us")
+final class SlackEncodeEvent extends Event {
+
+	private static final SlackEncodeEvent PROBE = new SlackEncodeEvent();
+
+	@Label("Body Mode")
+	String mode;
+
+	@Label("Body Size")
+	@DataAmount
+	long bodySize;
+
+	@Label("Form Size")
+	@Description("What the body takes form-urlencoded, the same as Body Size in FORM mode")
+	@DataAmount
+	long formSize;
+
+	@Label("Streamed")
+	@Description("Encoded straight to the connection rather than into memory")
+	boolean streamed;
+
+	static boolean enabled() {
+		return PROBE.isEnabled();
+	}
+}
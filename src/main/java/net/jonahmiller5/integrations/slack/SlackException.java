@@ -4,7 +4,27 @@ public class SlackException extends RuntimeException {
 
 	private static final long serialVersionUID = 1L;
 
+	private final transient SlackResponse response;
+
 	public SlackException(Throwable cause) {
 		super(cause);
+		this.response = null;
+	}
+
+	public SlackException(String message) {
+		super(message);
+		this.response = null;
+	}
+
+	public SlackException(SlackResponse response) {
+		super("Slack responded " + response.getStatusCode() + ": " + response.getBody().trim());
+		this.response = response;
+	}
+
+	/**
+	 * @return the webhook response that caused the failure, or null if the post never got one
+	 */
+	public SlackResponse getResponse() {
+		return response;
 	}
 }
@@ -0,0 +1,11 @@
+package net.jonahmiller5.integrations.slack;
+
+/**
+ * Which threads a SlackDispatcher sends on
+ */
+public enum SlackExecutionMode {
+	/** A fixed set of platform worker threads */
+	PLATFORM,
+	/** A new virtual thread per send, capped by a semaphore. Needs JDK 21 or later. */
+	VIRTUAL
+}
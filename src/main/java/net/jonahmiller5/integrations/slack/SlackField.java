@@ -1,5 +1,7 @@
 package net.jonahmiller5.integrations.slack;
 
+import java.io.IOException;
+
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
@@ -79,6 +81,22 @@ public class SlackField {
 		return data;
 	}
 
+	public void writeJson(SlackJsonWriter out) throws IOException {
+		out.beginObject();
+		out.name(SlackJsonKey.TITLE).value(title);
+		out.name(SlackJsonKey.VALUE).value(value);
+		out.name(SlackJsonKey.SHORT).value(shorten);
+		if (allowMarkdown != null && allowMarkdown.size() > 0) {
+			out.name(SlackJsonKey.MRKDWN_IN).beginArray();
+			for (String item : this.allowMarkdown) {
+				out.value(item);
+			}
+			out.endArray();
+		}
+
+		out.endObject();
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		if (this == o)
@@ -0,0 +1,104 @@
+package net.jonahmiller5.integrations.slack;
+
+import java.io.IOException;
+
+/**
+ * Stable 64-bit content fingerprint of a message
+ *
+ * The message's encoded JSON, as the pooled SlackJsonWriter streams it, is hashed byte by byte
+ * with FNV-1a and a final avalanche mix. No Gson tree is built, and a post that is encoded anyway
+ * is fingerprinted from the body it sends. Unlike SlackMessage.hashCode the result only depends on
+ * what would be posted, and is the same on every JVM and every run.
+ */
+public final class SlackFingerprint {
+
+	private static final long OFFSET_BASIS = 0xCBF29CE484222325L;
+	private static final long PRIME = 0x100000001B3L;
+
+	private SlackFingerprint() {
+	}
+
+	/**
+	 * Fingerprint of the message on its own, for a SlackDeduplicator used directly through
+	 * admit(message). A SlackApi admits of(api, message) instead.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the message is one Slack would refuse, as SlackMessage.prepare does
+	 */
+	public static long of(SlackMessage message) {
+		final SlackJsonWriter out = SlackJsonWriter.acquire();
+		try {
+			message.writeJson(out);
+			return mix(hash(OFFSET_BASIS, out.buffer(), 0, out.size()));
+		} catch (IOException e) {
+			throw new SlackException(e);
+		} finally {
+			out.release();
+		}
+	}
+
+	/**
+	 * Fingerprint the SlackApi's deduplicator admits the message under, which takes in the webhook
+	 * and the body in the API's body mode, e.g. to look up its SlackDeduplicator.getSuppressedCount
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the message is one Slack would refuse, as SlackMessage.prepare does
+	 */
+	public static long of(SlackApi api, SlackMessage message) {
+		try {
+			return of(api.getService(), api.encode(message));
+		} catch (IOException e) {
+			throw new SlackException(e);
+		}
+	}
+
+	/**
+	 * Fingerprint of a body posted to one webhook, so the same text sent to two webhooks differs
+	 */
+	static long of(String service, SlackBody body) {
+		long h = hash(OFFSET_BASIS, service);
+		for (byte[] segment : body.getSegments()) {
+			h = hash(h, segment, 0, segment.length);
+		}
+
+		return mix(h);
+	}
+
+	/**
+	 * Length first, so where the service ends and the body starts is never ambiguous
+	 */
+	private static long hash(long h, String string) {
+		final int length = string.length();
+		h = hash(hash(h, (char) (length >>> 16)), (char) length);
+		for (int i = 0; i < length; i++) {
+			h = hash(h, string.charAt(i));
+		}
+
+		return h;
+	}
+
+	private static long hash(long h, byte[] bytes, int offset, int length) {
+		for (int i = offset, end = offset + length; i < end; i++) {
+			h = (h ^ (bytes[i] & 0xFF)) * PRIME;
+		}
+
+		return h;
+	}
+
+	private static long hash(long h, char c) {
+		return (h ^ c) * PRIME;
+	}
+
+	/**
+	 * MurmurHash3's 64-bit finalizer, so nearby inputs spread over all 64 bits
+	 */
+	private static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		h *= 0xC4CEB9FE1A85EC53L;
+		h ^= h >>> 33;
+
+		return h;
+	}
+}
@@ -0,0 +1,159 @@
+package net.jonahmiller5.integrations.slack;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of non-negative longs with log-linear buckets, in the manner of HdrHistogram
+ *
+ * Values below 64 get a bucket each; above that every power of two is split into 32 buckets, so
+ * any recorded value is reported within about 3% of itself, from 1 up to Long.MAX_VALUE, in
+ * 15 KB per stripe. Recording is a leading-zero count, a shift and two atomic adds into the
+ * calling thread's stripe, so threads recording at once do not fight over the same cache lines.
+ * Reads sum the stripes without stopping writers, so a read taken during recording may be a few
+ * values behind.
+ */
+public final class SlackHistogram {
+
+	private static final int SUB_BITS = 5;
+	private static final int SUB_COUNT = 1 << SUB_BITS;
+	private static final int LINEAR = SUB_COUNT << 1;
+	private static final int BUCKETS = LINEAR + (63 - SUB_BITS - 1) * SUB_COUNT;
+	private static final int MAX_STRIPES = 16;
+
+	/** Slots per stripe: the buckets, then the sum */
+	private static final int STRIDE = BUCKETS + 1;
+
+	static final int STRIPES = Math.min(MAX_STRIPES,
+			Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1)) << 1);
+
+	private final AtomicLongArray counts = new AtomicLongArray(STRIPES * STRIDE);
+
+	/**
+	 * @param value
+	 *            value to count, negative values count as 0
+	 */
+	public void record(long value) {
+		if (value < 0) {
+			value = 0;
+		}
+
+		final int base = stripe() * STRIDE;
+		counts.getAndIncrement(base + index(value));
+		counts.getAndAdd(base + BUCKETS, value);
+	}
+
+	/**
+	 * @return the calling thread's stripe; pool threads get consecutive ids, hence distinct stripes
+	 */
+	static int stripe() {
+		return (int) Thread.currentThread().getId() & (STRIPES - 1);
+	}
+
+	private long count(int index) {
+		long result = 0;
+		for (int base = 0; base < counts.length(); base += STRIDE) {
+			result += counts.get(base + index);
+		}
+
+		return result;
+	}
+
+	static int index(long value) {
+		if (value < LINEAR) {
+			return (int) value;
+		}
+
+		final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+		return LINEAR + (shift - 1) * SUB_COUNT + (int) (value >>> shift) - SUB_COUNT;
+	}
+
+	/**
+	 * @return the largest value that falls in the bucket
+	 */
+	static long highest(int index) {
+		if (index < LINEAR) {
+			return index;
+		}
+
+		final int shift = (index - LINEAR) / SUB_COUNT + 1;
+		final long sub = (index - LINEAR) % SUB_COUNT + SUB_COUNT;
+		final long next = (sub + 1) << shift;
+
+		return next < 0 ? Long.MAX_VALUE : next - 1;
+	}
+
+	public long getCount() {
+		long result = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			result += count(i);
+		}
+
+		return result;
+	}
+
+	public long getSum() {
+		return count(BUCKETS);
+	}
+
+	public double getMean() {
+		final long n = getCount();
+		return n == 0 ? 0 : (double) getSum() / n;
+	}
+
+	/**
+	 * @return values recorded in buckets up to and including the one holding the given value
+	 */
+	public long getCountAtOrBelow(long value) {
+		if (value < 0) {
+			return 0;
+		}
+
+		final int last = index(value);
+		long result = 0;
+		for (int i = 0; i <= last; i++) {
+			result += count(i);
+		}
+
+		return result;
+	}
+
+	/**
+	 * @param share
+	 *            0 to 1, e.g. 0.99 for the 99th percentile
+	 * @return the value under which that share of recorded values fall, rounded up to the top of
+	 *         its bucket, or 0 if nothing was recorded
+	 */
+	public long getPercentile(double share) {
+		if (share < 0 || share > 1) {
+			throw new IllegalArgumentException("Invalid Share @ SlackHistogram");
+		}
+
+		final long[] buckets = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets[i] = count(i);
+			total += buckets[i];
+		}
+
+		if (total == 0) {
+			return 0;
+		}
+
+		final long rank = Math.max(1, (long) Math.ceil(share * total));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += buckets[i];
+			if (seen >= rank) {
+				return highest(i);
+			}
+		}
+
+		return highest(BUCKETS - 1);
+	}
+
+	@Override
+	public String toString() {
+		return "SlackHistogram{" + "count=" + getCount() + ", mean=" + Math.round(getMean()) + ", p50="
+				+ getPercentile(0.5) + ", p99=" + getPercentile(0.99) + ", p999=" + getPercentile(0.999) + '}';
+	}
+}
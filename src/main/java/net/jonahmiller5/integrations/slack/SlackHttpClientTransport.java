@@ -0,0 +1,111 @@
+package net.jonahmiller5.integrations.slack;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Posts through one java.net.http.HttpClient, which multiplexes many posts over a few
+ * connections and waits for answers without holding a thread
+ *
+ * The default transport for SlackApi's callAsync. The client's proxy and connect timeout apply
+ * to every post; those of the request are not looked at.
+ */
+public class SlackHttpClientTransport implements SlackTransport {
+
+	private static final String CONTENT_TYPE = "Content-Type";
+	private static final String RETRY_AFTER = "Retry-After";
+
+	private final HttpClient client;
+
+	public SlackHttpClientTransport() {
+		this(5000, Proxy.NO_PROXY);
+	}
+
+	/**
+	 * @param timeout
+	 *            connect timeout in milliseconds
+	 * @param proxy
+	 *            direct or HTTP proxy; HttpClient has no SOCKS support
+	 */
+	public SlackHttpClientTransport(int timeout, Proxy proxy) {
+		this(buildClient(timeout, proxy));
+	}
+
+	public SlackHttpClientTransport(HttpClient client) {
+		if (client == null) {
+			throw new IllegalArgumentException("Missing HttpClient @ SlackHttpClientTransport");
+		}
+
+		this.client = client;
+	}
+
+	private static HttpClient buildClient(int timeout, Proxy proxy) {
+		final HttpClient.Builder builder = HttpClient.newBuilder()
+				.connectTimeout(Duration.ofMillis(timeout));
+
+		if (proxy == null || proxy.type() == Proxy.Type.DIRECT) {
+			builder.proxy(HttpClient.Builder.NO_PROXY);
+		} else if (proxy.type() == Proxy.Type.HTTP) {
+			builder.proxy(ProxySelector.of((InetSocketAddress) proxy.address()));
+		} else {
+			throw new SlackException(new UnsupportedOperationException("SOCKS proxies are not supported @ SlackHttpClientTransport"));
+		}
+
+		return builder.build();
+	}
+
+	@Override
+	public SlackResponse send(SlackRequest request) throws IOException {
+		try {
+			return toResponse(client.send(toHttpRequest(request), HttpResponse.BodyHandlers.ofString()));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted waiting for Slack");
+		}
+	}
+
+	@Override
+	public CompletableFuture<SlackResponse> sendAsync(SlackRequest request) {
+		final HttpRequest httpRequest;
+		try {
+			httpRequest = toHttpRequest(request);
+		} catch (Exception e) {
+			final CompletableFuture<SlackResponse> failed = new CompletableFuture<SlackResponse>();
+			failed.completeExceptionally(e);
+			return failed;
+		}
+
+		return client.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofString())
+				.thenApply(SlackHttpClientTransport::toResponse);
+	}
+
+	private static HttpRequest toHttpRequest(SlackRequest request) throws IOException {
+		return HttpRequest.newBuilder(URI.create(request.getUrl()))
+				.header(CONTENT_TYPE, request.getContentType())
+				.POST(HttpRequest.BodyPublishers.ofByteArrays(request.getSegments()))
+				.build();
+	}
+
+	private static SlackResponse toResponse(HttpResponse<String> response) {
+		return new SlackResponse(response.statusCode(), response.body(),
+				response.headers().firstValue(RETRY_AFTER).orElse(null));
+	}
+
+	public HttpClient getClient() {
+		return client;
+	}
+
+	@Override
+	public String toString() {
+		return "SlackHttpClientTransport{" + "client=" + client + '}';
+	}
+}
@@ -0,0 +1,80 @@
+package net.jonahmiller5.integrations.slack;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A member name of the Slack message model, encoded once as the UTF-8 bytes of "name": so that
+ * SlackJsonWriter copies it in one go instead of escaping and encoding it for every message
+ *
+ * The names are plain ASCII and need no escaping, which the constructor relies on.
+ */
+final class SlackJsonKey {
+
+	static final SlackJsonKey ACCESSORY = new SlackJsonKey("accessory");
+	static final SlackJsonKey ACTIONS = new SlackJsonKey("actions");
+	static final SlackJsonKey ACTION_ID = new SlackJsonKey("action_id");
+	static final SlackJsonKey ALT_TEXT = new SlackJsonKey("alt_text");
+	static final SlackJsonKey ATTACHMENTS = new SlackJsonKey("attachments");
+	static final SlackJsonKey AUTHOR_ICON = new SlackJsonKey("author_icon");
+	static final SlackJsonKey AUTHOR_LINK = new SlackJsonKey("author_link");
+	static final SlackJsonKey AUTHOR_NAME = new SlackJsonKey("author_name");
+	static final SlackJsonKey BLOCKS = new SlackJsonKey("blocks");
+	static final SlackJsonKey BLOCK_ID = new SlackJsonKey("block_id");
+	static final SlackJsonKey CALLBACK_ID = new SlackJsonKey("callback_id");
+	static final SlackJsonKey CHANNEL = new SlackJsonKey("channel");
+	static final SlackJsonKey COLOR = new SlackJsonKey("color");
+	static final SlackJsonKey CONFIRM = new SlackJsonKey("confirm");
+	static final SlackJsonKey DENY = new SlackJsonKey("deny");
+	static final SlackJsonKey ELEMENTS = new SlackJsonKey("elements");
+	static final SlackJsonKey EMOJI = new SlackJsonKey("emoji");
+	static final SlackJsonKey EXTERNAL_ID = new SlackJsonKey("external_id");
+	static final SlackJsonKey FALLBACK = new SlackJsonKey("fallback");
+	static final SlackJsonKey FIELDS = new SlackJsonKey("fields");
+	static final SlackJsonKey FOOTER = new SlackJsonKey("footer");
+	static final SlackJsonKey FOOTER_ICON = new SlackJsonKey("footer_icon");
+	static final SlackJsonKey ICON_EMOJI = new SlackJsonKey("icon_emoji");
+	static final SlackJsonKey ICON_URL = new SlackJsonKey("icon_url");
+	static final SlackJsonKey IMAGE_URL = new SlackJsonKey("image_url");
+	static final SlackJsonKey INITIAL_CHANNEL = new SlackJsonKey("initial_channel");
+	static final SlackJsonKey INITIAL_CONVERSATION = new SlackJsonKey("initial_conversation");
+	static final SlackJsonKey INITIAL_DATE = new SlackJsonKey("initial_date");
+	static final SlackJsonKey INITIAL_OPTION = new SlackJsonKey("initial_option");
+	static final SlackJsonKey INITIAL_USER = new SlackJsonKey("initial_user");
+	static final SlackJsonKey LABEL = new SlackJsonKey("label");
+	static final SlackJsonKey LINK_NAMES = new SlackJsonKey("link_names");
+	static final SlackJsonKey MIN_QUERY_LENGTH = new SlackJsonKey("min_query_length");
+	static final SlackJsonKey MRKDWN_IN = new SlackJsonKey("mrkdwn_in");
+	static final SlackJsonKey NAME = new SlackJsonKey("name");
+	static final SlackJsonKey OPTIONS = new SlackJsonKey("options");
+	static final SlackJsonKey OPTION_GROUPS = new SlackJsonKey("option_groups");
+	static final SlackJsonKey PLACEHOLDER = new SlackJsonKey("placeholder");
+	static final SlackJsonKey PRETEXT = new SlackJsonKey("pretext");
+	static final SlackJsonKey SHORT = new SlackJsonKey("short");
+	static final SlackJsonKey SOURCE = new SlackJsonKey("source");
+	static final SlackJsonKey STYLE = new SlackJsonKey("style");
+	static final SlackJsonKey TEXT = new SlackJsonKey("text");
+	static final SlackJsonKey THUMB_URL = new SlackJsonKey("thumb_url");
+	static final SlackJsonKey TIMESTAMP = new SlackJsonKey("ts");
+	static final SlackJsonKey TITLE = new SlackJsonKey("title");
+	static final SlackJsonKey TITLE_LINK = new SlackJsonKey("title_link");
+	static final SlackJsonKey TYPE = new SlackJsonKey("type");
+	static final SlackJsonKey UNFURL_LINKS = new SlackJsonKey("unfurl_links");
+	static final SlackJsonKey UNFURL_MEDIA = new SlackJsonKey("unfurl_media");
+	static final SlackJsonKey URL = new SlackJsonKey("url");
+	static final SlackJsonKey USERNAME = new SlackJsonKey("username");
+	static final SlackJsonKey VALUE = new SlackJsonKey("value");
+	static final SlackJsonKey VERBATIM = new SlackJsonKey("verbatim");
+
+	final String name;
+	final byte[] bytes;
+
+	private SlackJsonKey(String name) {
+		this.name = name;
+		this.bytes = ('"' + name + "\":").getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public String toString() {
+		return "SlackJsonKey{" + "name=" + name + '}';
+	}
+}
@@ -0,0 +1,566 @@
+package net.jonahmiller5.integrations.slack;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * Streaming JSON sink the message model writes itself into, without building a Gson tree first
+ *
+ * Output is byte for byte what JsonElement.toString gives for the same tree, UTF-8 encoded:
+ * compact, nulls kept, no HTML escaping, and strings escaped the way Gson's JsonWriter escapes
+ * them. Commas and colons are placed by the writer, so callers only say name, value, begin and
+ * end, in the manner of Gson's JsonWriter. Nothing is checked beyond that; a badly nested
+ * sequence of calls writes badly nested JSON.
+ *
+ * JSON is encoded straight to UTF-8 bytes in a growable buffer, with the model's member names
+ * copied from pre-encoded SlackJsonKey tables. Strings are scanned eight chars at a time, and
+ * runs that are plain ASCII with nothing to escape are copied in bulk. Output reaches the Writer
+ * or stream when the outermost object or array is closed, on flush, or whenever the buffer
+ * fills. A Writer gets the bytes decoded, so an unpaired surrogate comes out as '?', as it would
+ * on the wire.
+ *
+ * SlackBodyEncoder takes writers from a small pool, so after warm-up encoding a message
+ * allocates nothing but the body it returns.
+ *
+ * Usage: message.writeJson(new SlackJsonWriter(writer))
+ */
+public final class SlackJsonWriter {
+
+	private static final int INITIAL_DEPTH = 16;
+	private static final int INITIAL_SIZE = 8192;
+
+	/** Pooled writers drop buffers that grew past this, so one huge message does not pin memory */
+	private static final int MAX_RETAINED_SIZE = 256 * 1024;
+
+	/** Chars of a string encoded per capacity check */
+	private static final int CHUNK = 1024;
+
+	/** Most bytes one char can take: a control char escaped as a six byte unicode escape */
+	private static final int MAX_CHAR_BYTES = 6;
+
+	private static final int MAX_LONG_LENGTH = 20;
+
+	private static final int NON_ASCII = 0xFF80;
+
+	private static final byte[][] REPLACEMENTS = new byte[128][];
+
+	/** Per ASCII char, 1 if a JSON string must escape it */
+	private static final byte[] ESCAPED = new byte[128];
+
+	/** Nothing is escaped in plain text */
+	private static final byte[] PLAIN = new byte[128];
+	private static final byte[] LINE_SEPARATOR = ascii("\\u2028");
+	private static final byte[] PARAGRAPH_SEPARATOR = ascii("\\u2029");
+	private static final byte[] TRUE = ascii("true");
+	private static final byte[] FALSE = ascii("false");
+	private static final byte[] NULL = ascii("null");
+	private static final byte[] MIN_LONG = ascii(Long.toString(Long.MIN_VALUE));
+
+	/**
+	 * Writers kept for reuse, a slot per stripe of thread ids. Thread locals would do for platform
+	 * threads, but the dispatcher sends each message on a fresh virtual thread.
+	 */
+	private static final AtomicReferenceArray<SlackJsonWriter> POOL = new AtomicReferenceArray<SlackJsonWriter>(
+			SlackHistogram.STRIPES);
+
+	static {
+		for (int c = 0; c < 0x20; c++) {
+			REPLACEMENTS[c] = ascii(String.format("\\u%04x", c));
+		}
+		REPLACEMENTS['"'] = ascii("\\\"");
+		REPLACEMENTS['\\'] = ascii("\\\\");
+		REPLACEMENTS['\t'] = ascii("\\t");
+		REPLACEMENTS['\b'] = ascii("\\b");
+		REPLACEMENTS['\n'] = ascii("\\n");
+		REPLACEMENTS['\r'] = ascii("\\r");
+		REPLACEMENTS['\f'] = ascii("\\f");
+
+		for (int c = 0; c < REPLACEMENTS.length; c++) {
+			ESCAPED[c] = (byte) (REPLACEMENTS[c] == null ? 0 : 1);
+		}
+	}
+
+	private final Writer writer;
+	private final OutputStream stream;
+
+	private byte[] buffer = new byte[INITIAL_SIZE];
+	private int position;
+	private byte[] scratch;
+
+	/** Per open object or array, whether anything has been written into it yet */
+	private boolean[] started = new boolean[INITIAL_DEPTH];
+	private int depth;
+	private boolean named;
+
+	public SlackJsonWriter(Writer out) {
+		if (out == null) {
+			throw new IllegalArgumentException("Missing Writer @ SlackJsonWriter");
+		}
+
+		this.writer = out;
+		this.stream = null;
+	}
+
+	/**
+	 * @param out
+	 *            gets the JSON as UTF-8
+	 */
+	public SlackJsonWriter(OutputStream out) {
+		if (out == null) {
+			throw new IllegalArgumentException("Missing OutputStream @ SlackJsonWriter");
+		}
+
+		this.writer = null;
+		this.stream = out;
+	}
+
+	/**
+	 * A writer that keeps everything in its buffer, for buffer() and size()
+	 */
+	private SlackJsonWriter() {
+		this.writer = null;
+		this.stream = null;
+	}
+
+	/**
+	 * Take a buffering writer from the pool, or make one if the pool has none to spare. Hand it
+	 * back with release() once its bytes have been used.
+	 */
+	static SlackJsonWriter acquire() {
+		final SlackJsonWriter pooled = POOL.getAndSet(SlackHistogram.stripe(), null);
+		return pooled != null ? pooled : new SlackJsonWriter();
+	}
+
+	/**
+	 * Reset the writer and give it back to the pool. It must not be used afterwards.
+	 */
+	void release() {
+		position = 0;
+		depth = 0;
+		named = false;
+		started[0] = false;
+		if (buffer.length > MAX_RETAINED_SIZE) {
+			buffer = new byte[INITIAL_SIZE];
+		}
+
+		POOL.lazySet(SlackHistogram.stripe(), this);
+	}
+
+	/**
+	 * @return the buffer holding the JSON written so far, from index 0 to size()
+	 */
+	byte[] buffer() {
+		return buffer;
+	}
+
+	int size() {
+		return position;
+	}
+
+	/**
+	 * @return a spare buffer of at least the given size, kept with the writer for reuse
+	 */
+	byte[] scratch(int size) {
+		if (scratch == null || scratch.length < size) {
+			scratch = new byte[size];
+		}
+
+		return scratch;
+	}
+
+	public SlackJsonWriter beginObject() throws IOException {
+		return this.open('{');
+	}
+
+	public SlackJsonWriter endObject() throws IOException {
+		return this.close('}');
+	}
+
+	public SlackJsonWriter beginArray() throws IOException {
+		return this.open('[');
+	}
+
+	public SlackJsonWriter endArray() throws IOException {
+		return this.close(']');
+	}
+
+	/**
+	 * Start a member of the current object; the next value written is its value
+	 */
+	public SlackJsonWriter name(String name) throws IOException {
+		this.separate();
+		this.string(name);
+		this.ensure(1);
+		buffer[position++] = ':';
+		named = true;
+
+		return this;
+	}
+
+	/**
+	 * Start a member named by one of the model's pre-encoded keys
+	 */
+	SlackJsonWriter name(SlackJsonKey key) throws IOException {
+		this.separate();
+		this.raw(key.bytes);
+		named = true;
+
+		return this;
+	}
+
+	/**
+	 * @param value
+	 *            written as null if null
+	 */
+	public SlackJsonWriter value(String value) throws IOException {
+		if (value == null) {
+			return this.nullValue();
+		}
+
+		this.beforeValue();
+		this.string(value);
+
+		return this;
+	}
+
+	public SlackJsonWriter value(boolean value) throws IOException {
+		this.beforeValue();
+		this.raw(value ? TRUE : FALSE);
+
+		return this;
+	}
+
+	public SlackJsonWriter value(long value) throws IOException {
+		this.beforeValue();
+		if (value == Long.MIN_VALUE) {
+			this.raw(MIN_LONG);
+			return this;
+		}
+
+		this.ensure(MAX_LONG_LENGTH);
+		if (value < 0) {
+			buffer[position++] = '-';
+			value = -value;
+		}
+
+		int digits = 1;
+		for (long rest = value / 10; rest != 0; rest /= 10) {
+			digits++;
+		}
+
+		position += digits;
+		int at = position;
+		do {
+			buffer[--at] = (byte) ('0' + value % 10);
+			value /= 10;
+		} while (value != 0);
+
+		return this;
+	}
+
+	/**
+	 * @param value
+	 *            written as its toString, or as null if null
+	 */
+	public SlackJsonWriter value(Number value) throws IOException {
+		if (value == null) {
+			return this.nullValue();
+		}
+
+		if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			return this.value(value.longValue());
+		}
+
+		this.beforeValue();
+		this.plain(value.toString());
+
+		return this;
+	}
+
+	public SlackJsonWriter nullValue() throws IOException {
+		this.beforeValue();
+		this.raw(NULL);
+
+		return this;
+	}
+
+	/**
+	 * Write a Gson tree, for parts of the model that only know how to build one
+	 */
+	public SlackJsonWriter json(JsonElement element) throws IOException {
+		if (element == null || element.isJsonNull()) {
+			return this.nullValue();
+		}
+
+		if (element.isJsonPrimitive()) {
+			final JsonPrimitive primitive = element.getAsJsonPrimitive();
+			if (primitive.isBoolean()) {
+				return this.value(primitive.getAsBoolean());
+			}
+
+			return primitive.isNumber() ? this.value(primitive.getAsNumber()) : this.value(primitive.getAsString());
+		}
+
+		if (element.isJsonArray()) {
+			this.beginArray();
+			for (JsonElement item : element.getAsJsonArray()) {
+				this.json(item);
+			}
+
+			return this.endArray();
+		}
+
+		this.beginObject();
+		for (Map.Entry<String, JsonElement> member : element.getAsJsonObject().entrySet()) {
+			this.name(member.getKey());
+			this.json(member.getValue());
+		}
+
+		return this.endObject();
+	}
+
+	/**
+	 * Push what is buffered to the Writer or stream, and flush that
+	 */
+	public void flush() throws IOException {
+		this.drain();
+		if (writer != null) {
+			writer.flush();
+		} else if (stream != null) {
+			stream.flush();
+		}
+	}
+
+	private SlackJsonWriter open(char bracket) throws IOException {
+		this.beforeValue();
+		this.ensure(1);
+		buffer[position++] = (byte) bracket;
+
+		if (++depth == started.length) {
+			started = Arrays.copyOf(started, depth * 2);
+		}
+		started[depth] = false;
+
+		return this;
+	}
+
+	private SlackJsonWriter close(char bracket) throws IOException {
+		depth--;
+		this.ensure(1);
+		buffer[position++] = (byte) bracket;
+
+		if (depth == 0) {
+			this.drain();
+		}
+
+		return this;
+	}
+
+	private void beforeValue() throws IOException {
+		if (named) {
+			named = false;
+		} else {
+			this.separate();
+		}
+	}
+
+	private void separate() throws IOException {
+		if (started[depth]) {
+			this.ensure(1);
+			buffer[position++] = ',';
+		}
+		started[depth] = true;
+	}
+
+	private void raw(byte[] bytes) throws IOException {
+		this.ensure(bytes.length);
+		System.arraycopy(bytes, 0, buffer, position, bytes.length);
+		position += bytes.length;
+	}
+
+	/**
+	 * Copy JSON that is already UTF-8, e.g. the fixed parts of a SlackTemplate. Nesting is not
+	 * tracked, so the bytes must leave it as they found it.
+	 */
+	void splice(byte[] utf8, int offset, int length) throws IOException {
+		this.ensure(length);
+		System.arraycopy(utf8, offset, buffer, position, length);
+		position += length;
+	}
+
+	/**
+	 * Escape a string without quoting it, for a value spliced into a string already open
+	 */
+	void spliceString(String value) throws IOException {
+		this.encode(value, true);
+	}
+
+	/**
+	 * Quote and escape a string, encoding it to UTF-8 a chunk at a time
+	 */
+	private void string(String value) throws IOException {
+		this.ensure(1);
+		buffer[position++] = '"';
+		this.encode(value, true);
+		this.ensure(1);
+		buffer[position++] = '"';
+	}
+
+	/**
+	 * Encode text as it is, e.g. a number
+	 */
+	private void plain(String value) throws IOException {
+		this.encode(value, false);
+	}
+
+	/**
+	 * Encode chunk by chunk, each in two alternating steps: find the run of ASCII chars that need no
+	 * escaping and copy it in bulk, then take chars one at a time until the next such char
+	 */
+	private void encode(String value, boolean escape) throws IOException {
+		final byte[] special = escape ? ESCAPED : PLAIN;
+		final int length = value.length();
+		int i = 0;
+		while (i < length) {
+			final int end = Math.min(length, i + CHUNK);
+			// One char past the chunk may be taken as the low half of a surrogate pair
+			this.ensure((end - i + 1) * MAX_CHAR_BYTES);
+
+			final byte[] buf = buffer;
+			int at = position;
+			while (i < end) {
+				final int run = cleanRun(value, i, end, special);
+				if (run > i) {
+					copyAscii(value, i, run, buf, at);
+					at += run - i;
+					i = run;
+				}
+
+				for (; i < end; i++) {
+					final char c = value.charAt(i);
+					if (c < 0x80) {
+						if (special[c] == 0) {
+							break;
+						}
+						final byte[] replacement = REPLACEMENTS[c];
+						System.arraycopy(replacement, 0, buf, at, replacement.length);
+						at += replacement.length;
+					} else if (c < 0x800) {
+						buf[at++] = (byte) (0xC0 | (c >> 6));
+						buf[at++] = (byte) (0x80 | (c & 0x3F));
+					} else if (Character.isSurrogate(c)) {
+						if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+							final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+							buf[at++] = (byte) (0xF0 | (codePoint >> 18));
+							buf[at++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+							buf[at++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+							buf[at++] = (byte) (0x80 | (codePoint & 0x3F));
+						} else {
+							// Unpaired surrogate, UTF-8 encodes it as '?'
+							buf[at++] = '?';
+						}
+					} else if (escape && (c == '\u2028' || c == '\u2029')) {
+						final byte[] replacement = c == '\u2028' ? LINE_SEPARATOR : PARAGRAPH_SEPARATOR;
+						System.arraycopy(replacement, 0, buf, at, replacement.length);
+						at += replacement.length;
+					} else {
+						buf[at++] = (byte) (0xE0 | (c >> 12));
+						buf[at++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+						buf[at++] = (byte) (0x80 | (c & 0x3F));
+					}
+				}
+			}
+			position = at;
+		}
+	}
+
+	/**
+	 * @return index of the first char from start on that is not ASCII or is special, or end.
+	 *         Eight chars are checked per branch: OR-ing them together shows at once whether any
+	 *         has a bit at or above 0x80, and only if none has, OR-ing their table entries shows
+	 *         whether any needs escaping.
+	 */
+	private static int cleanRun(String value, int start, int end, byte[] special) {
+		int i = start;
+		for (; i + 8 <= end; i += 8) {
+			final char c0 = value.charAt(i);
+			final char c1 = value.charAt(i + 1);
+			final char c2 = value.charAt(i + 2);
+			final char c3 = value.charAt(i + 3);
+			final char c4 = value.charAt(i + 4);
+			final char c5 = value.charAt(i + 5);
+			final char c6 = value.charAt(i + 6);
+			final char c7 = value.charAt(i + 7);
+			if (((c0 | c1 | c2 | c3 | c4 | c5 | c6 | c7) & NON_ASCII) != 0 || (special[c0] | special[c1] | special[c2]
+					| special[c3] | special[c4] | special[c5] | special[c6] | special[c7]) != 0) {
+				break;
+			}
+		}
+
+		// The block that stopped the loop, or the tail shorter than a block
+		for (; i < end; i++) {
+			final char c = value.charAt(i);
+			if (c >= 0x80 || special[c] != 0) {
+				break;
+			}
+		}
+
+		return i;
+	}
+
+	/**
+	 * Copy chars already known to be ASCII as bytes. String.getBytes(int, int, byte[], int) keeps
+	 * the low byte of each char, which for ASCII is its UTF-8 encoding, and is an array copy when
+	 * the string is stored as Latin-1, as any mostly-English text is.
+	 */
+	@SuppressWarnings("deprecation")
+	private static void copyAscii(String value, int start, int end, byte[] into, int at) {
+		value.getBytes(start, end, into, at);
+	}
+
+	/**
+	 * Make room for the given number of bytes, by draining to the Writer or stream if there is
+	 * one and growing the buffer otherwise. Only called between whole chars, so a drain never
+	 * splits one.
+	 */
+	private void ensure(int bytes) throws IOException {
+		if (position + bytes <= buffer.length) {
+			return;
+		}
+
+		if (writer != null || stream != null) {
+			this.drain();
+			if (bytes <= buffer.length) {
+				return;
+			}
+		}
+
+		buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + bytes));
+	}
+
+	private void drain() throws IOException {
+		if (position == 0) {
+			return;
+		}
+
+		if (writer != null) {
+			writer.write(new String(buffer, 0, position, StandardCharsets.UTF_8));
+			position = 0;
+		} else if (stream != null) {
+			stream.write(buffer, 0, position);
+			position = 0;
+		}
+	}
+
+	private static byte[] ascii(String value) {
+		return value.getBytes(StandardCharsets.US_ASCII);
+	}
+}
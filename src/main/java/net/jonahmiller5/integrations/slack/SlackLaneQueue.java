@@ -0,0 +1,259 @@
+package net.jonahmiller5.integrations.slack;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded blocking queue with one FIFO lane per SlackPriority, sharing one capacity
+ *
+ * Takes pick a lane by the SlackSchedulingPolicy: STRICT serves the highest non-empty lane unless
+ * a lower lane's head has waited past the starvation limit, WEIGHTED runs smooth weighted round
+ * robin over the non-empty lanes. Each lane is a ring buffer with its own enqueue timestamps,
+ * grown on demand up to the shared capacity, and one ReentrantLock guards them all like in
+ * ArrayBlockingQueue, so virtual threads waiting on it do not pin their carriers.
+ */
+final class SlackLaneQueue<E> {
+
+	private static final SlackPriority[] PRIORITIES = SlackPriority.values();
+	private static final int INITIAL_LANE_SIZE = 16;
+
+	private final Object[][] items;
+	private final long[][] enqueued;
+	private final int[] heads;
+	private final int[] counts;
+	private final int[] credits;
+
+	private final int capacity;
+	private final SlackSchedulingPolicy scheduling;
+	private final long starvationLimit;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notEmpty = lock.newCondition();
+	private final Condition notFull = lock.newCondition();
+
+	private int count;
+
+	/**
+	 * @param starvationLimit
+	 *            nanoseconds a lower lane's head may wait under STRICT scheduling
+	 */
+	SlackLaneQueue(int capacity, SlackSchedulingPolicy scheduling, long starvationLimit) {
+		this.capacity = capacity;
+		this.scheduling = scheduling;
+		this.starvationLimit = starvationLimit;
+		this.items = new Object[PRIORITIES.length][Math.min(capacity, INITIAL_LANE_SIZE)];
+		this.enqueued = new long[PRIORITIES.length][Math.min(capacity, INITIAL_LANE_SIZE)];
+		this.heads = new int[PRIORITIES.length];
+		this.counts = new int[PRIORITIES.length];
+		this.credits = new int[PRIORITIES.length];
+	}
+
+	boolean offer(E item, SlackPriority priority) {
+		lock.lock();
+		try {
+			if (count == capacity) {
+				return false;
+			}
+
+			enqueue(item, priority.ordinal());
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	void put(E item, SlackPriority priority) throws InterruptedException {
+		lock.lockInterruptibly();
+		try {
+			while (count == capacity) {
+				notFull.await();
+			}
+
+			enqueue(item, priority.ordinal());
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	E poll() {
+		lock.lock();
+		try {
+			return count == 0 ? null : dequeue(next());
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	E poll(long timeout, TimeUnit unit) throws InterruptedException {
+		long remaining = unit.toNanos(timeout);
+		lock.lockInterruptibly();
+		try {
+			while (count == 0) {
+				if (remaining <= 0) {
+					return null;
+				}
+				remaining = notEmpty.awaitNanos(remaining);
+			}
+
+			return dequeue(next());
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Remove the oldest message of the lowest non-empty lane no higher than the priority, to make
+	 * room for a message of that priority
+	 *
+	 * @return the evicted message, or null if only higher lanes hold messages
+	 */
+	E evict(SlackPriority priority) {
+		lock.lock();
+		try {
+			for (int lane = PRIORITIES.length - 1; lane >= priority.ordinal(); lane--) {
+				if (counts[lane] > 0) {
+					return dequeue(lane);
+				}
+			}
+
+			return null;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void enqueue(E item, int lane) {
+		if (counts[lane] == items[lane].length) {
+			grow(lane);
+		}
+
+		final int tail = (heads[lane] + counts[lane]) % items[lane].length;
+		items[lane][tail] = item;
+		enqueued[lane][tail] = System.nanoTime();
+		counts[lane]++;
+		count++;
+		notEmpty.signal();
+	}
+
+	@SuppressWarnings("unchecked")
+	private E dequeue(int lane) {
+		final int head = heads[lane];
+		final E item = (E) items[lane][head];
+		items[lane][head] = null;
+		heads[lane] = (head + 1) % items[lane].length;
+		counts[lane]--;
+		count--;
+		notFull.signal();
+
+		return item;
+	}
+
+	/**
+	 * Double a full lane, unrolling it so its head sits at index 0
+	 */
+	private void grow(int lane) {
+		final int size = counts[lane];
+		final int length = (int) Math.min(capacity, 2L * size);
+		final Object[] grownItems = new Object[length];
+		final long[] grownEnqueued = new long[length];
+		final int head = heads[lane];
+		final int wrapped = size - head;
+
+		System.arraycopy(items[lane], head, grownItems, 0, wrapped);
+		System.arraycopy(items[lane], 0, grownItems, wrapped, head);
+		System.arraycopy(enqueued[lane], head, grownEnqueued, 0, wrapped);
+		System.arraycopy(enqueued[lane], 0, grownEnqueued, wrapped, head);
+
+		items[lane] = grownItems;
+		enqueued[lane] = grownEnqueued;
+		heads[lane] = 0;
+	}
+
+	/**
+	 * Lane to take from next; only called with at least one message queued
+	 */
+	private int next() {
+		if (scheduling == SlackSchedulingPolicy.STRICT) {
+			int first = -1;
+			for (int lane = 0; lane < PRIORITIES.length; lane++) {
+				if (counts[lane] == 0) {
+					continue;
+				}
+
+				if (first < 0) {
+					first = lane;
+				} else if (System.nanoTime() - enqueued[lane][heads[lane]] > starvationLimit) {
+					// A lower lane has waited too long, serve whichever head is oldest
+					return starved(lane);
+				}
+			}
+
+			return first;
+		}
+
+		int best = -1;
+		int total = 0;
+		for (int lane = 0; lane < PRIORITIES.length; lane++) {
+			if (counts[lane] == 0) {
+				// Idle lanes do not bank credit for a burst later
+				credits[lane] = 0;
+				continue;
+			}
+
+			credits[lane] += PRIORITIES[lane].getWeight();
+			total += PRIORITIES[lane].getWeight();
+			if (best < 0 || credits[lane] > credits[best]) {
+				best = lane;
+			}
+		}
+
+		credits[best] -= total;
+		return best;
+	}
+
+	/**
+	 * Among the starved lanes from this one down, the one whose head has waited longest
+	 */
+	private int starved(int from) {
+		int oldest = from;
+		for (int lane = from + 1; lane < PRIORITIES.length; lane++) {
+			if (counts[lane] > 0 && enqueued[lane][heads[lane]] - enqueued[oldest][heads[oldest]] < 0) {
+				oldest = lane;
+			}
+		}
+
+		return oldest;
+	}
+
+	int size() {
+		lock.lock();
+		try {
+			return count;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	int size(SlackPriority priority) {
+		lock.lock();
+		try {
+			return counts[priority.ordinal()];
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	boolean isEmpty() {
+		return size() == 0;
+	}
+
+	int remainingCapacity() {
+		lock.lock();
+		try {
+			return capacity - count;
+		} finally {
+			lock.unlock();
+		}
+	}
+}
@@ -1,5 +1,7 @@
 package net.jonahmiller5.integrations.slack;
 
+import java.io.IOException;
+
 import com.google.gson.JsonObject;
 
 /** 
@@ -25,4 +27,11 @@ import com.google.gson.JsonObject;
 
 public interface SlackMCO {
     public JsonObject toJson();
+    
+    /**
+     * Write the same JSON as toJson straight into the writer, without building the Gson tree
+     */
+    public default void writeJson(SlackJsonWriter out) throws IOException {
+        out.json(this.toJson());
+    }
 }
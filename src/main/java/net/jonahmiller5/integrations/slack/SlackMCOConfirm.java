@@ -1,5 +1,7 @@
 package net.jonahmiller5.integrations.slack;
 
+import java.io.IOException;
+
 import com.google.gson.JsonObject;
 
 import lombok.Getter;
@@ -120,4 +122,18 @@ public class SlackMCOConfirm implements SlackMCO {
         
         return result;
     }
+
+    @Override
+    public void writeJson(SlackJsonWriter out) throws IOException {
+        out.beginObject();
+        out.name(SlackJsonKey.TITLE);
+        this.title.writeJson(out);
+        out.name(SlackJsonKey.TEXT);
+        this.text.writeJson(out);
+        out.name(SlackJsonKey.CONFIRM);
+        this.confirm.writeJson(out);
+        out.name(SlackJsonKey.DENY);
+        this.deny.writeJson(out);
+        out.endObject();
+    }
 }
@@ -1,5 +1,6 @@
 package net.jonahmiller5.integrations.slack;
 
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 
@@ -116,4 +117,16 @@ public class SlackMCOOption implements SlackMCO {
         
         return result;
     }
+
+    @Override
+    public void writeJson(SlackJsonWriter out) throws IOException {
+        out.beginObject();
+        out.name(SlackJsonKey.TEXT);
+        this.text.writeJson(out);
+        out.name(SlackJsonKey.VALUE).value(this.value);
+        if (this.url != null) {
+            out.name(SlackJsonKey.URL).value(this.url);
+        }
+        out.endObject();
+    }
 }
@@ -1,6 +1,8 @@
 package net.jonahmiller5.integrations.slack;
 
 
+import java.io.IOException;
+
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 
@@ -91,4 +93,19 @@ public class SlackMCOOptionGroup implements SlackMCO {
         
         return result;
     }
+
+    @Override
+    public void writeJson(SlackJsonWriter out) throws IOException {
+        out.beginObject();
+        out.name(SlackJsonKey.LABEL);
+        this.label.writeJson(out);
+        
+        out.name(SlackJsonKey.OPTIONS).beginArray();
+        for (SlackMCOOption option : options) {
+            option.writeJson(out);
+        }
+        out.endArray();
+        
+        out.endObject();
+    }
 }
@@ -1,5 +1,7 @@
 package net.jonahmiller5.integrations.slack;
 
+import java.io.IOException;
+
 import com.google.gson.JsonObject;
 
 import lombok.Getter;
@@ -131,4 +133,21 @@ public class SlackMCOText implements SlackMCO {
         
         return result;
     }
+
+    @Override
+    public void writeJson(SlackJsonWriter out) throws IOException {
+        out.beginObject();
+        out.name(SlackJsonKey.TYPE).value(this.type);
+        out.name(SlackJsonKey.TEXT).value(this.text);
+        
+        if (this.emoji) {
+            out.name(SlackJsonKey.EMOJI).value(this.emoji);
+        }
+        
+        if (this.verbatim) {
+            out.name(SlackJsonKey.VERBATIM).value(this.verbatim);
+        }
+        
+        out.endObject();
+    }
 }
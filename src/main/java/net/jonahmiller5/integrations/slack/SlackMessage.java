@@ -1,13 +1,14 @@
 package net.jonahmiller5.integrations.slack;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 
-import net.gpedro.integrations.slack.SlackAttachment;
-
 /** 
  * Class to represent the Slack Text object, which is a kind of Message Composition Object
  * Part of an update to the GitHub repo at https://github.com/gpedro/slack-webhook
@@ -41,11 +42,13 @@ public class SlackMessage {
 	private static final String ATTACHMENTS = "attachments";
 	private static final String LINK_NAMES = "link_names";
 
+	/** Source of change stamps for messages, blocks and attachments; only ever goes up */
+	private static final AtomicLong STAMPS = new AtomicLong();
+
 	private List<SlackBlock> blocks = new ArrayList<SlackBlock>();
 	private List<SlackAttachment> attach = new ArrayList<SlackAttachment>();
 	private String channel = null;
 	private String icon = null;
-	private JsonObject slackMessage = new JsonObject();
 
 	private String text = null;
 	private String username = null;
@@ -55,6 +58,10 @@ public class SlackMessage {
 
 	private boolean linkNames = false;
 
+	private boolean memoized = false;
+	private volatile long stamp;
+	private volatile Memo memo;
+
 	public SlackMessage() {
 	}
 
@@ -80,12 +87,14 @@ public class SlackMessage {
 
 	public SlackMessage addAttachments(SlackAttachment attach) {
 		this.attach.add(attach);
+		this.changed();
 
 		return this;
 	}
 	
 	public SlackMessage addBlocks(SlackBlock block) {
         this.blocks.add(block);
+        this.changed();
 
         return this;
     }
@@ -93,9 +102,29 @@ public class SlackMessage {
 	/**
 	 * Convert SlackMessage to JSON
 	 * 
+	 * Builds a new tree on every call and changes nothing on the message, so it can be called
+	 * any number of times, from several threads at once, as long as the message is not changed
+	 * meanwhile.
+	 * 
 	 * @return JsonObject
 	 */
 	public JsonObject prepare() {
+		if (!SlackPrepareEvent.enabled()) {
+			return this.prepareMessage();
+		}
+
+		final SlackPrepareEvent event = new SlackPrepareEvent();
+		event.begin();
+		final JsonObject result = this.prepareMessage();
+		event.blockCount = blocks.size();
+		event.attachmentCount = attach.size();
+		event.commit();
+
+		return result;
+	}
+
+	private JsonObject prepareMessage() {
+		final JsonObject slackMessage = new JsonObject();
 		if (channel != null) {
 			slackMessage.addProperty(CHANNEL, channel);
 		}
@@ -133,6 +162,135 @@ public class SlackMessage {
 		return slackMessage;
 	}
 
+	/**
+	 * Write the same JSON a fresh prepare() gives straight into the writer, without building the
+	 * Gson tree. Every block, element and composition object writes itself, so nothing but the
+	 * output is produced along the way.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             as prepare() does, before anything is written
+	 */
+	public void writeJson(SlackJsonWriter out) throws IOException {
+		this.validate();
+
+		out.beginObject();
+		if (channel != null) {
+			out.name(SlackJsonKey.CHANNEL).value(channel);
+		}
+
+		if (username != null) {
+			out.name(SlackJsonKey.USERNAME).value(username);
+		}
+
+		if (icon != null) {
+			out.name(icon.contains(HTTP) ? SlackJsonKey.ICON_URL : SlackJsonKey.ICON_EMOJI).value(icon);
+		}
+
+		out.name(SlackJsonKey.UNFURL_MEDIA).value(unfurlMedia);
+		out.name(SlackJsonKey.UNFURL_LINKS).value(unfurlLinks);
+		out.name(SlackJsonKey.LINK_NAMES).value(linkNames);
+		out.name(SlackJsonKey.TEXT).value(text);
+
+		if (!blocks.isEmpty()) {
+			out.name(SlackJsonKey.BLOCKS).beginArray();
+			for (SlackBlock block : this.blocks) {
+				block.writeJson(out);
+			}
+			out.endArray();
+		}
+
+		if (!attach.isEmpty()) {
+			out.name(SlackJsonKey.ATTACHMENTS).beginArray();
+			for (SlackAttachment attach : this.attach) {
+				attach.writeJson(out);
+			}
+			out.endArray();
+		}
+		out.endObject();
+	}
+
+	/**
+	 * Keep the encoded request body of the message from its first send and post the same bytes
+	 * on every later one, for messages sent over and over unchanged, e.g. a maintenance notice
+	 * 
+	 * The body is encoded again after a setter, add or remove method changes the message or any
+	 * of its blocks or attachments. Elements, composition objects, fields and actions inside them
+	 * are not watched, so finish those before adding them.
+	 * 
+	 * @return SlackMessage
+	 */
+	public SlackMessage setMemoized(boolean memoized) {
+		this.memoized = memoized;
+		this.changed();
+
+		return this;
+	}
+
+	public boolean isMemoized() {
+		return memoized;
+	}
+
+	/**
+	 * @return the message encoded in the given mode, kept for the next call if memoized
+	 */
+	SlackBody encode(SlackBodyMode mode) throws IOException {
+		if (!memoized) {
+			return SlackBodyEncoder.encode(this, mode);
+		}
+
+		// Stamped before encoding: a change made meanwhile stamps the message past this, so the
+		// kept body can never be taken for a later state than the one it was encoded from
+		final long before = this.latestStamp();
+		final Memo kept = memo;
+		if (kept != null && kept.stamp == before && kept.body.getMode() == mode) {
+			return kept.body;
+		}
+
+		final SlackBody result = SlackBodyEncoder.encode(this, mode);
+		memo = new Memo(before, result);
+
+		return result;
+	}
+
+	/**
+	 * @return the stamp of the latest change to the message or any of its blocks or attachments
+	 */
+	private long latestStamp() {
+		long result = stamp;
+		final List<SlackBlock> blocks = this.blocks;
+		for (int i = 0; i < blocks.size(); i++) {
+			result = Math.max(result, blocks.get(i).stamp);
+		}
+
+		final List<SlackAttachment> attach = this.attach;
+		for (int i = 0; i < attach.size(); i++) {
+			result = Math.max(result, attach.get(i).stamp);
+		}
+
+		return result;
+	}
+
+	private void changed() {
+		stamp = nextStamp();
+	}
+
+	static long nextStamp() {
+		return STAMPS.incrementAndGet();
+	}
+
+	/**
+	 * Throw what prepare() throws for a message Slack would refuse, without preparing it
+	 */
+	void validate() {
+		if (text == null) {
+			throw new IllegalArgumentException("Missing Text field @ SlackMessage");
+		}
+
+		for (SlackAttachment attach : this.attach) {
+			attach.validate();
+		}
+	}
+
 	private JsonArray prepareBlocks() {
         final JsonArray blocks = new JsonArray();
         for (SlackBlock block : this.blocks) {
@@ -153,24 +311,28 @@ public class SlackMessage {
 
 	public SlackMessage removeBlock(int index) {
         this.blocks.remove(index);
+        this.changed();
 
         return this;
     }
 	
 	public SlackMessage removeAttachment(int index) {
 		this.attach.remove(index);
+		this.changed();
 
 		return this;
 	}
 
 	public SlackMessage setBlocks(List<SlackBlock> blocks) {
-        this.blocks = blocks;
+        this.blocks = new ArrayList<SlackBlock>(blocks);
+        this.changed();
 
         return this;
     }
 	
 	public SlackMessage setAttachments(List<SlackAttachment> attach) {
-		this.attach = attach;
+		this.attach = new ArrayList<SlackAttachment>(attach);
+		this.changed();
 
 		return this;
 	}
@@ -178,6 +340,7 @@ public class SlackMessage {
 	public SlackMessage setChannel(String channel) {
 		if (channel != null) {
 			this.channel = channel;
+			this.changed();
 		}
 
 		return this;
@@ -193,6 +356,7 @@ public class SlackMessage {
 	public SlackMessage setIcon(String icon) {
 		if (icon != null) {
 			this.icon = icon;
+			this.changed();
 		}
 
 		return this;
@@ -201,6 +365,7 @@ public class SlackMessage {
 	public SlackMessage setText(String message) {
 		if (message != null) {
 			this.text = message;
+			this.changed();
 		}
 
 		return this;
@@ -209,6 +374,7 @@ public class SlackMessage {
 	public SlackMessage setUsername(String username) {
 		if (username != null) {
 			this.username = username;
+			this.changed();
 		}
 
 		return this;
@@ -216,22 +382,56 @@ public class SlackMessage {
 
 	public SlackMessage setUnfurlMedia(boolean unfurlMedia) {
 		this.unfurlMedia = unfurlMedia;
+		this.changed();
 
 		return this;
 	}
 
 	public SlackMessage setUnfurlLinks(boolean unfurlLinks) {
 		this.unfurlLinks = unfurlLinks;
+		this.changed();
 
 		return this;
 	}
 
 	public SlackMessage setLinkNames(boolean linkNames) {
 		this.linkNames = linkNames;
+		this.changed();
 
 		return this;
 	}
 
+	/**
+	 * @return the blocks, read-only; change them with addBlocks, removeBlock and setBlocks
+	 */
+	public List<SlackBlock> getBlocks() {
+		return Collections.unmodifiableList(blocks);
+	}
+
+	/**
+	 * @return the attachments, read-only; change them with addAttachments, removeAttachment and
+	 *         setAttachments
+	 */
+	public List<SlackAttachment> getAttachments() {
+		return Collections.unmodifiableList(attach);
+	}
+
+	public String getChannel() {
+		return channel;
+	}
+
+	public String getIcon() {
+		return icon;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	public String getUsername() {
+		return username;
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		if (this == o)
@@ -279,7 +479,20 @@ public class SlackMessage {
 	@Override
 	public String toString() {
 		return "SlackMessage{" + "blocks=" + blocks + "attach=" + attach + ", channel='" + channel + '\'' + ", icon='" + icon + '\''
-				+ ", slackMessage=" + slackMessage + ", text='" + text + '\'' + ", username='" + username + '\''
-				+ ", unfurlMedia=" + unfurlMedia + ", unfurlLinks=" + unfurlLinks + ", linkNames=" + linkNames + '}';
+				+ ", text='" + text + '\'' + ", username='" + username + '\''
+				+ ", unfurlMedia=" + unfurlMedia + ", unfurlLinks=" + unfurlLinks + ", linkNames=" + linkNames + ", memoized=" + memoized + '}';
+	}
+
+	/**
+	 * An encoded body and the stamp of the state it was encoded from
+	 */
+	private static class Memo {
+		final long stamp;
+		final SlackBody body;
+
+		Memo(long stamp, SlackBody body) {
+			this.stamp = stamp;
+			this.body = body;
+		}
 	}
 }
@@ -0,0 +1,329 @@
+package net.jonahmiller5.integrations.slack;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Counts what SlackApi's send path does: how long each post takes, how big its body is, how
+ * Slack answered, how often posts are retried and how deep dispatcher queues are
+ *
+ * Set one instance on any number of SlackApi instances with setMetrics; the figures are summed
+ * over all of them. Recording is a couple of atomic increments per post and allocates nothing,
+ * except the first time an error code is seen. Error codes are kept up to a limit, past which
+ * they are counted as "other", so a webhook answering free text cannot grow the registry.
+ *
+ * writePrometheus renders everything in the Prometheus text format, and SlackMetricsEndpoint
+ * serves it over HTTP for scraping.
+ */
+public class SlackMetrics {
+
+	private static final int MAX_STATUS = 600;
+	private static final int DEFAULT_MAX_ERROR_CODES = 64;
+	private static final int MAX_ERROR_CODE_LENGTH = 64;
+	private static final String OTHER = "other";
+
+	/** Prometheus histogram bounds for send latency, in seconds */
+	private static final double[] LATENCY_BOUNDS = { 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10 };
+
+	/** Prometheus histogram bounds for request body sizes, in bytes */
+	private static final double[] SIZE_BOUNDS = { 256, 1024, 4096, 16384, 65536, 262144, 1048576 };
+
+	private final SlackHistogram latency = new SlackHistogram();
+	private final SlackHistogram bodySize = new SlackHistogram();
+	private final AtomicLongArray statuses = new AtomicLongArray(SlackHistogram.STRIPES * MAX_STATUS);
+	private final ConcurrentHashMap<String, LongAdder> errorCodes = new ConcurrentHashMap<String, LongAdder>();
+	private final List<Gauge> gauges = new CopyOnWriteArrayList<Gauge>();
+	private final int maxErrorCodes;
+
+	private final AtomicLong failures = new AtomicLong();
+	private final AtomicLong retries = new AtomicLong();
+
+	public SlackMetrics() {
+		this(DEFAULT_MAX_ERROR_CODES);
+	}
+
+	/**
+	 * @param maxErrorCodes
+	 *            distinct Slack error codes counted on their own before the rest count as "other"
+	 */
+	public SlackMetrics(int maxErrorCodes) {
+		if (maxErrorCodes < 1) {
+			throw new IllegalArgumentException("Invalid Max Error Codes @ SlackMetrics");
+		}
+
+		this.maxErrorCodes = maxErrorCodes;
+	}
+
+	/**
+	 * Count a post Slack answered
+	 *
+	 * @param nanos
+	 *            time from handing the request to the transport to having the answer
+	 * @param size
+	 *            bytes of the request body
+	 */
+	void recordResponse(long nanos, long size, SlackResponse response) {
+		latency.record(nanos);
+		bodySize.record(size);
+
+		final int status = response.getStatusCode();
+		statuses.getAndIncrement(SlackHistogram.stripe() * MAX_STATUS + (status > 0 && status < MAX_STATUS ? status : 0));
+
+		if (!response.isOk()) {
+			final String code = response.getErrorCode();
+			if (code != null) {
+				this.errorCode(code).increment();
+			}
+		}
+	}
+
+	/**
+	 * Count a post that got no answer, because the connection failed or timed out
+	 */
+	void recordFailure(long nanos) {
+		latency.record(nanos);
+		failures.incrementAndGet();
+	}
+
+	void recordRetry() {
+		retries.incrementAndGet();
+	}
+
+	private LongAdder errorCode(String code) {
+		final LongAdder counter = errorCodes.get(code);
+		if (counter != null) {
+			return counter;
+		}
+
+		final String key = errorCodes.size() < maxErrorCodes && code.length() <= MAX_ERROR_CODE_LENGTH ? code : OTHER;
+		return errorCodes.computeIfAbsent(key, k -> new LongAdder());
+	}
+
+	/**
+	 * Export a value read at scrape time, e.g. the size of a cache
+	 *
+	 * @param name
+	 *            metric name, optionally with labels, e.g. slack_cache_size{cache="users"}
+	 * @param help
+	 *            one line describing the metric
+	 * @return SlackMetrics
+	 */
+	public SlackMetrics addGauge(String name, String help, LongSupplier value) {
+		if (name == null || name.isEmpty() || value == null) {
+			throw new IllegalArgumentException("Invalid Gauge @ SlackMetrics");
+		}
+
+		gauges.add(new Gauge(name, help, value));
+
+		return this;
+	}
+
+	/**
+	 * Export the dispatcher's queue depth per priority lane and its in-flight sends
+	 *
+	 * @param name
+	 *            told apart from other dispatchers by the dispatcher label
+	 * @return SlackMetrics
+	 */
+	public SlackMetrics monitor(String name, final SlackDispatcher dispatcher) {
+		final String label = "{dispatcher=\"" + escape(name) + "\"";
+		for (final SlackPriority priority : SlackPriority.values()) {
+			this.addGauge("slack_dispatcher_queue_depth" + label + ",priority=\""
+					+ priority.name().toLowerCase(Locale.ROOT) + "\"}", "Messages waiting in a dispatcher lane",
+					() -> dispatcher.getQueueDepth(priority));
+		}
+		this.addGauge("slack_dispatcher_in_flight" + label + "}", "Sends running on dispatcher virtual threads",
+				() -> dispatcher.getInFlightCount());
+		this.addGauge("slack_dispatcher_pending_retries" + label + "}", "Failed sends waiting out their backoff",
+				() -> dispatcher.getPendingRetryCount());
+
+		return this;
+	}
+
+	/**
+	 * @return nanoseconds per post, failed ones included
+	 */
+	public SlackHistogram getLatency() {
+		return latency;
+	}
+
+	/**
+	 * @return bytes per answered post
+	 */
+	public SlackHistogram getBodySize() {
+		return bodySize;
+	}
+
+	/**
+	 * @return posts answered with the given HTTP status
+	 */
+	public long getStatusCount(int status) {
+		return status > 0 && status < MAX_STATUS ? this.status(status) : 0;
+	}
+
+	private long status(int status) {
+		long result = 0;
+		for (int base = 0; base < statuses.length(); base += MAX_STATUS) {
+			result += statuses.get(base + status);
+		}
+
+		return result;
+	}
+
+	/**
+	 * @return posts answered with each Slack error code, e.g. "rate_limited"
+	 */
+	public Map<String, Long> getErrorCodeCounts() {
+		final Map<String, Long> result = new TreeMap<String, Long>();
+		for (Map.Entry<String, LongAdder> entry : errorCodes.entrySet()) {
+			result.put(entry.getKey(), entry.getValue().sum());
+		}
+
+		return result;
+	}
+
+	/**
+	 * @return posts that got no answer
+	 */
+	public long getFailureCount() {
+		return failures.get();
+	}
+
+	public long getRetryCount() {
+		return retries.get();
+	}
+
+	/**
+	 * Render every metric in the Prometheus text exposition format, version 0.0.4
+	 */
+	public void writePrometheus(Appendable out) throws IOException {
+		writeHistogram(out, "slack_send_duration_seconds", "Time from handing a post to the transport to its answer",
+				latency, LATENCY_BOUNDS, 1e9);
+		writeHistogram(out, "slack_request_body_bytes", "Request body size of answered posts", bodySize, SIZE_BOUNDS, 1);
+
+		writeHeader(out, "slack_responses_total", "Posts answered, by HTTP status", "counter");
+		for (int status = 0; status < MAX_STATUS; status++) {
+			final long count = this.status(status);
+			if (count > 0) {
+				out.append("slack_responses_total{status=\"").append(Integer.toString(status)).append("\"} ")
+						.append(Long.toString(count)).append('\n');
+			}
+		}
+
+		writeHeader(out, "slack_errors_total", "Posts Slack refused, by error code", "counter");
+		for (Map.Entry<String, Long> entry : this.getErrorCodeCounts().entrySet()) {
+			out.append("slack_errors_total{code=\"").append(escape(entry.getKey())).append("\"} ")
+					.append(Long.toString(entry.getValue())).append('\n');
+		}
+
+		writeHeader(out, "slack_send_failures_total", "Posts that got no answer", "counter");
+		out.append("slack_send_failures_total ").append(Long.toString(failures.get())).append('\n');
+
+		writeHeader(out, "slack_retries_total", "Posts retried after a transient failure", "counter");
+		out.append("slack_retries_total ").append(Long.toString(retries.get())).append('\n');
+
+		// Gauges of one family must sit together under one header, however they were added
+		final Map<String, List<Gauge>> families = new LinkedHashMap<String, List<Gauge>>();
+		for (Gauge gauge : gauges) {
+			families.computeIfAbsent(gauge.family, k -> new ArrayList<Gauge>()).add(gauge);
+		}
+
+		for (List<Gauge> family : families.values()) {
+			writeHeader(out, family.get(0).family, family.get(0).help, "gauge");
+			for (Gauge gauge : family) {
+				out.append(gauge.name).append(' ').append(Long.toString(gauge.value.getAsLong())).append('\n');
+			}
+		}
+	}
+
+	/**
+	 * @return every metric in the Prometheus text exposition format
+	 */
+	public String toPrometheus() {
+		final StringBuilder out = new StringBuilder(4096);
+		try {
+			this.writePrometheus(out);
+		} catch (IOException e) {
+			throw new SlackException(e);
+		}
+
+		return out.toString();
+	}
+
+	private static void writeHistogram(Appendable out, String name, String help, SlackHistogram histogram,
+			double[] bounds, double scale) throws IOException {
+		writeHeader(out, name, help, "histogram");
+		for (double bound : bounds) {
+			out.append(name).append("_bucket{le=\"").append(format(bound)).append("\"} ")
+					.append(Long.toString(histogram.getCountAtOrBelow((long) (bound * scale)))).append('\n');
+		}
+
+		final long count = histogram.getCount();
+		out.append(name).append("_bucket{le=\"+Inf\"} ").append(Long.toString(count)).append('\n');
+		out.append(name).append("_sum ").append(format(histogram.getSum() / scale)).append('\n');
+		out.append(name).append("_count ").append(Long.toString(count)).append('\n');
+	}
+
+	private static void writeHeader(Appendable out, String name, String help, String type) throws IOException {
+		if (help != null) {
+			out.append("# HELP ").append(name).append(' ').append(help.replace("\\", "\\\\").replace("\n", "\\n"))
+					.append('\n');
+		}
+		out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+	}
+
+	private static String format(double value) {
+		return value == Math.rint(value) && Math.abs(value) < 1e15 ? Long.toString((long) value) : Double.toString(value);
+	}
+
+	/**
+	 * Escape a label value as the text format requires
+	 */
+	static String escape(String value) {
+		final StringBuilder result = new StringBuilder(value.length());
+		for (int i = 0; i < value.length(); i++) {
+			final char c = value.charAt(i);
+			if (c == '\\' || c == '"') {
+				result.append('\\').append(c);
+			} else if (c == '\n') {
+				result.append("\\n");
+			} else {
+				result.append(c);
+			}
+		}
+
+		return result.toString();
+	}
+
+	@Override
+	public String toString() {
+		return "SlackMetrics{" + "posts=" + latency.getCount() + ", failures=" + failures + ", retries=" + retries
+				+ ", errorCodes=" + errorCodes.keySet() + ", latency=" + latency + '}';
+	}
+
+	private static class Gauge {
+		final String name;
+		final String family;
+		final String help;
+		final LongSupplier value;
+
+		Gauge(String name, String help, LongSupplier value) {
+			final int brace = name.indexOf('{');
+			this.name = name;
+			this.family = brace < 0 ? name : name.substring(0, brace);
+			this.help = help;
+			this.value = value;
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package net.jonahmiller5.integrations.slack;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Serves a SlackMetrics registry for Prometheus to scrape, on the JDK's built-in HTTP server
+ *
+ * GET /metrics answers the text exposition format; anything else answers 404 or 405. Requests
+ * are handled one at a time on a single daemon thread, which is plenty for a scraper.
+ *
+ * Usage: new SlackMetricsEndpoint(metrics, 9464).start()
+ */
+public class SlackMetricsEndpoint implements AutoCloseable {
+
+	private static final String PATH = "/metrics";
+	private static final String GET = "GET";
+	private static final String HEAD = "HEAD";
+	private static final String CONTENT_TYPE = "Content-Type";
+	private static final String TEXT_FORMAT = "text/plain; version=0.0.4; charset=utf-8";
+
+	private final SlackMetrics metrics;
+	private final InetSocketAddress address;
+
+	private HttpServer server;
+	private ExecutorService thread;
+
+	/**
+	 * @param port
+	 *            port to listen on, on every interface; 0 for any free port
+	 */
+	public SlackMetricsEndpoint(SlackMetrics metrics, int port) {
+		this(metrics, new InetSocketAddress(port));
+	}
+
+	public SlackMetricsEndpoint(SlackMetrics metrics, InetSocketAddress address) {
+		if (metrics == null) {
+			throw new IllegalArgumentException("Missing SlackMetrics @ SlackMetricsEndpoint");
+		}
+
+		if (address == null) {
+			throw new IllegalArgumentException("Missing Address @ SlackMetricsEndpoint");
+		}
+
+		this.metrics = metrics;
+		this.address = address;
+	}
+
+	public synchronized SlackMetricsEndpoint start() throws IOException {
+		if (server != null) {
+			return this;
+		}
+
+		thread = Executors.newSingleThreadExecutor(runnable -> {
+			final Thread result = new Thread(runnable, "slack-metrics");
+			result.setDaemon(true);
+			return result;
+		});
+
+		server = HttpServer.create(address, 16);
+		server.setExecutor(thread);
+		server.createContext("/", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				try {
+					answer(exchange);
+				} finally {
+					exchange.close();
+				}
+			}
+		});
+		server.start();
+
+		return this;
+	}
+
+	private void answer(HttpExchange exchange) throws IOException {
+		if (!PATH.equals(exchange.getRequestURI().getPath())) {
+			exchange.sendResponseHeaders(404, -1);
+			return;
+		}
+
+		final String method = exchange.getRequestMethod();
+		if (!GET.equals(method) && !HEAD.equals(method)) {
+			exchange.sendResponseHeaders(405, -1);
+			return;
+		}
+
+		final byte[] body = metrics.toPrometheus().getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set(CONTENT_TYPE, TEXT_FORMAT);
+		if (HEAD.equals(method)) {
+			exchange.sendResponseHeaders(200, -1);
+			return;
+		}
+
+		exchange.sendResponseHeaders(200, body.length);
+		final OutputStream out = exchange.getResponseBody();
+		out.write(body);
+		out.close();
+	}
+
+	/**
+	 * @return the port listened on, or -1 before start
+	 */
+	public synchronized int getPort() {
+		return server == null ? -1 : server.getAddress().getPort();
+	}
+
+	@Override
+	public synchronized void close() {
+		if (server != null) {
+			server.stop(0);
+			thread.shutdownNow();
+			server = null;
+			thread = null;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "SlackMetricsEndpoint{" + "address=" + address + ", port=" + getPort() + '}';
+	}
+}
@@ -0,0 +1,825 @@
+package net.jonahmiller5.integrations.slack;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+/**
+ * Durable outbox: messages are written to an on-disk log before they are sent, so they survive
+ * Slack outages and restarts
+ *
+ * The log is a directory of append-only segment files. Each record is [length][crc32][id][JSON]
+ * and ids increase by one across the whole log. Callers serialize their message and checksum it
+ * on their own thread; a single writer thread appends whatever has queued up since its last
+ * write with one gather write and one fsync (group commit), so the cost of the fsync is shared
+ * by every message in the batch.
+ *
+ * A delivery thread reads committed records back in order and posts them through the SlackApi.
+ * Transient failures are retried, with the SlackApi's retry policy for backoff, up to the
+ * outbox's own attempt limit, which is far above the policy's so outages are waited out. Posts
+ * Slack rejects outright (invalid_payload, channel_not_found, ...) and posts out of attempts are
+ * counted as failed, appended to the failed log (same record format) and skipped. Delivered ids
+ * are recorded in an ack file and a segment is deleted once every record in it is delivered. On
+ * startup a torn tail left by a crash is cut off and everything after the last ack is delivered
+ * again, so delivery is at least once.
+ *
+ * The outbox holds a lock file in its directory while open, so a second outbox, in this JVM or
+ * another, cannot deliver from and truncate the same log.
+ *
+ * Usage: new SlackOutbox(api, new File("/var/spool/slack")).submit(message)
+ */
+public class SlackOutbox {
+
+	private static final String SEGMENT_PREFIX = "outbox-";
+	private static final String SEGMENT_SUFFIX = ".log";
+	private static final String ACK_FILE = "outbox.ack";
+	private static final String FAILED_FILE = "outbox.failed";
+	private static final String LOCK_FILE = "outbox.lock";
+
+	private static final int HEADER_SIZE = 16;
+	private static final int MAX_RECORD_SIZE = 16 * 1024 * 1024;
+	private static final long DEFAULT_SEGMENT_SIZE = 64L * 1024 * 1024;
+	private static final int DEFAULT_MAX_BATCH = 1024;
+	private static final int DEFAULT_MAX_ATTEMPTS = 120;
+	private static final long POLL_INTERVAL = 100;
+	private static final long ACK_SYNC_INTERVAL = 1000;
+
+	private final SlackApi api;
+	private final File directory;
+	private final long segmentSize;
+	private final int maxBatch;
+	private final int maxAttempts;
+
+	private final BlockingQueue<Entry> pending = new LinkedBlockingQueue<Entry>();
+	private final ConcurrentSkipListMap<Long, File> segments = new ConcurrentSkipListMap<Long, File>();
+	private final FileLock lock;
+	private final FileChannel ackChannel;
+	private final FileChannel failedChannel;
+	private final ByteBuffer ackBuffer = ByteBuffer.allocate(8);
+	private final Thread writer;
+	private final Thread deliverer;
+
+	private final AtomicLong appended = new AtomicLong();
+	private final AtomicLong batches = new AtomicLong();
+	private final AtomicLong delivered = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+	private final AtomicLong retried = new AtomicLong();
+	private final AtomicLong corrupted = new AtomicLong();
+
+	// Owned by the writer thread
+	private FileChannel segment;
+	private long segmentBase;
+	private long segmentEnd;
+	private long nextId;
+
+	// Owned by the delivery thread
+	private FileChannel reader;
+	private long readerBase = -1;
+	private long readerPosition;
+	private long readerNextId;
+	private long lastAckSync;
+
+	private volatile Position committed;
+	private volatile long acked;
+	private volatile boolean running = true;
+	private volatile boolean writerDone;
+
+	public SlackOutbox(SlackApi api, File directory) {
+		this(api, directory, DEFAULT_SEGMENT_SIZE, DEFAULT_MAX_BATCH);
+	}
+
+	public SlackOutbox(SlackApi api, File directory, long segmentSize, int maxBatch) {
+		this(api, directory, segmentSize, maxBatch, DEFAULT_MAX_ATTEMPTS);
+	}
+
+	/**
+	 * Open the outbox in the directory, replaying whatever an earlier instance left undelivered
+	 *
+	 * @param segmentSize
+	 *            bytes after which the writer starts a new segment file
+	 * @param maxBatch
+	 *            most messages written with a single fsync
+	 * @param maxAttempts
+	 *            posts per message before it is moved to the failed log
+	 * @throws SlackException
+	 *             if another outbox has the directory open
+	 */
+	public SlackOutbox(SlackApi api, File directory, long segmentSize, int maxBatch, int maxAttempts) {
+		if (api == null) {
+			throw new IllegalArgumentException("Missing SlackApi @ SlackOutbox");
+		}
+
+		if (directory == null || !(directory.isDirectory() || directory.mkdirs())) {
+			throw new IllegalArgumentException("Invalid Directory @ SlackOutbox");
+		}
+
+		if (segmentSize < HEADER_SIZE) {
+			throw new IllegalArgumentException("Invalid Segment Size @ SlackOutbox");
+		}
+
+		if (maxBatch < 1) {
+			throw new IllegalArgumentException("Invalid Max Batch @ SlackOutbox");
+		}
+
+		if (maxAttempts < 1) {
+			throw new IllegalArgumentException("Invalid Max Attempts @ SlackOutbox");
+		}
+
+		this.api = api;
+		this.directory = directory;
+		this.segmentSize = segmentSize;
+		this.maxBatch = maxBatch;
+		this.maxAttempts = maxAttempts;
+
+		try {
+			this.lock = lock(directory);
+		} catch (IOException e) {
+			throw new SlackException(e);
+		}
+
+		try {
+			this.ackChannel = FileChannel.open(new File(directory, ACK_FILE).toPath(), StandardOpenOption.CREATE,
+					StandardOpenOption.READ, StandardOpenOption.WRITE);
+			this.failedChannel = FileChannel.open(new File(directory, FAILED_FILE).toPath(), StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+			this.acked = readAck();
+			recover();
+		} catch (IOException e) {
+			unlock();
+			throw new SlackException(e);
+		}
+
+		this.writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				write();
+			}
+		}, "slack-outbox-writer");
+		this.writer.setDaemon(true);
+
+		this.deliverer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				deliver();
+			}
+		}, "slack-outbox-delivery");
+		this.deliverer.setDaemon(true);
+
+		this.writer.start();
+		this.deliverer.start();
+	}
+
+	/**
+	 * Take the directory's lock file, held until close
+	 */
+	private static FileLock lock(File directory) throws IOException {
+		final FileChannel channel = FileChannel.open(new File(directory, LOCK_FILE).toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE);
+
+		FileLock lock = null;
+		try {
+			lock = channel.tryLock();
+		} catch (OverlappingFileLockException e) {
+			// Held by another outbox in this JVM
+		} finally {
+			if (lock == null) {
+				channel.close();
+			}
+		}
+
+		if (lock == null) {
+			throw new SlackException("Directory in use @ SlackOutbox");
+		}
+
+		return lock;
+	}
+
+	private void unlock() {
+		try {
+			lock.channel().close();
+		} catch (IOException e) {
+			// Released with the channel either way
+		}
+	}
+
+	/**
+	 * Append a message to the outbox
+	 *
+	 * @return completes with the message's id once it is on disk, or exceptionally if it could
+	 *         not be written
+	 */
+	public CompletableFuture<Long> submit(SlackMessage message) {
+		if (message == null) {
+			return CompletableFuture.completedFuture(null);
+		}
+
+		if (!running) {
+			return failed(new SlackException("Outbox closed @ SlackOutbox"));
+		}
+
+		final Entry entry;
+		try {
+			entry = new Entry(record(message.encode(SlackBodyMode.JSON).getSegments().get(0)));
+		} catch (Exception e) {
+			return failed(e instanceof SlackException ? (SlackException) e : new SlackException(e));
+		}
+
+		pending.offer(entry);
+		if (writerDone) {
+			failPending();
+		}
+
+		return entry.done;
+	}
+
+	private static ByteBuffer record(byte[] payload) {
+		if (payload.length > MAX_RECORD_SIZE) {
+			throw new SlackException("Message too large @ SlackOutbox");
+		}
+
+		final CRC32 crc = new CRC32();
+		crc.update(payload, 0, payload.length);
+
+		// The id is filled in by the writer, which hands them out in log order
+		final ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+		record.putInt(payload.length).putInt((int) crc.getValue()).putLong(0).put(payload);
+		record.flip();
+
+		return record;
+	}
+
+	private void write() {
+		final List<Entry> batch = new ArrayList<Entry>(maxBatch);
+		while (running || !pending.isEmpty()) {
+			try {
+				final Entry first = pending.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				batch.add(first);
+			} catch (InterruptedException e) {
+				continue;
+			}
+
+			pending.drainTo(batch, maxBatch - 1);
+
+			try {
+				commit(batch);
+				for (Entry entry : batch) {
+					entry.done.complete(entry.id);
+				}
+			} catch (IOException e) {
+				// Some of the batch may have reached the disk; it is delivered if so, but reported as failed
+				for (Entry entry : batch) {
+					entry.done.completeExceptionally(new SlackException(e));
+				}
+				rollback();
+			}
+
+			batch.clear();
+		}
+
+		writerDone = true;
+		failPending();
+
+		try {
+			segment.close();
+		} catch (IOException e) {
+			// Everything committed was already forced
+		}
+	}
+
+	/**
+	 * Append the batch to the log, rolling to new segments as needed, and force it to disk
+	 */
+	private void commit(List<Entry> batch) throws IOException {
+		int from = 0;
+		for (int i = 0; i < batch.size(); i++) {
+			final Entry entry = batch.get(i);
+			final int size = entry.record.remaining();
+
+			if (segmentEnd > 0 && segmentEnd + size > segmentSize) {
+				append(batch, from, i);
+				roll(nextId);
+				from = i;
+			}
+
+			entry.id = nextId++;
+			entry.record.putLong(8, entry.id);
+			segmentEnd += size;
+		}
+
+		append(batch, from, batch.size());
+		batches.incrementAndGet();
+		appended.addAndGet(batch.size());
+	}
+
+	private void append(List<Entry> batch, int from, int to) throws IOException {
+		if (from == to) {
+			return;
+		}
+
+		final ByteBuffer[] records = new ByteBuffer[to - from];
+		for (int i = from; i < to; i++) {
+			records[i - from] = batch.get(i).record;
+		}
+
+		final ByteBuffer last = records[records.length - 1];
+		while (last.hasRemaining()) {
+			segment.write(records);
+		}
+
+		segment.force(false);
+		committed = new Position(segmentBase, segmentEnd, nextId - 1);
+		LockSupport.unpark(deliverer);
+	}
+
+	/**
+	 * After a failed write, cut the log back to what was last committed
+	 */
+	private void rollback() {
+		final Position position = committed;
+		try {
+			if (position.base != segmentBase) {
+				// Failed after rolling, start the new segment over
+				roll(position.lastId + 1);
+			} else {
+				segment.truncate(position.end);
+				segment.position(position.end);
+				segmentEnd = position.end;
+			}
+			nextId = position.lastId + 1;
+		} catch (IOException e) {
+			// Still broken, the next batch fails and tries again
+		}
+	}
+
+	private void roll(long base) throws IOException {
+		if (segment != null) {
+			segment.close();
+		}
+
+		final File file = segmentFile(base);
+		segment = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		segment.truncate(0);
+		segments.put(base, file);
+		segmentBase = base;
+		segmentEnd = 0;
+	}
+
+	private void failPending() {
+		Entry entry;
+		while ((entry = pending.poll()) != null) {
+			entry.done.completeExceptionally(new SlackException("Outbox closed @ SlackOutbox"));
+		}
+	}
+
+	/**
+	 * Find the segments left by an earlier instance, drop the delivered ones and cut a torn tail
+	 */
+	private void recover() throws IOException {
+		final File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				final String name = file.getName();
+				if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+					try {
+						segments.put(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())), file);
+					} catch (NumberFormatException e) {
+						// Not one of ours
+					}
+				}
+			}
+		}
+
+		Map.Entry<Long, File> first;
+		while ((first = segments.firstEntry()) != null) {
+			final Long next = segments.higherKey(first.getKey());
+			if (next == null || next - 1 > acked) {
+				break;
+			}
+			segments.remove(first.getKey());
+			first.getValue().delete();
+		}
+
+		final Map.Entry<Long, File> last = segments.lastEntry();
+		if (last == null) {
+			nextId = acked + 1;
+			roll(nextId);
+		} else {
+			segmentBase = last.getKey();
+			segment = FileChannel.open(last.getValue().toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+			long position = 0;
+			long id = segmentBase;
+			final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			while (read(segment, position, segment.size(), id, header) != null) {
+				position += HEADER_SIZE + header.getInt(0);
+				id++;
+			}
+
+			segment.truncate(position);
+			segment.position(position);
+			segment.force(false);
+			segmentEnd = position;
+			nextId = id;
+
+			// Ids at or below the ack would never be delivered
+			if (nextId <= acked) {
+				nextId = acked + 1;
+				roll(nextId);
+			}
+		}
+
+		committed = new Position(segmentBase, segmentEnd, nextId - 1);
+	}
+
+	/**
+	 * Read the record at the position if it is whole, intact and carries the expected id
+	 *
+	 * @return its JSON payload, or null
+	 */
+	private static byte[] read(FileChannel channel, long position, long limit, long expectedId, ByteBuffer header)
+			throws IOException {
+		if (position + HEADER_SIZE > limit) {
+			return null;
+		}
+
+		header.clear();
+		while (header.hasRemaining()) {
+			if (channel.read(header, position + header.position()) < 0) {
+				return null;
+			}
+		}
+
+		final int length = header.getInt(0);
+		if (length < 0 || length > MAX_RECORD_SIZE || position + HEADER_SIZE + length > limit
+				|| header.getLong(8) != expectedId) {
+			return null;
+		}
+
+		final ByteBuffer payload = ByteBuffer.allocate(length);
+		while (payload.hasRemaining()) {
+			if (channel.read(payload, position + HEADER_SIZE + payload.position()) < 0) {
+				return null;
+			}
+		}
+
+		final CRC32 crc = new CRC32();
+		crc.update(payload.array(), 0, length);
+		return (int) crc.getValue() == header.getInt(4) ? payload.array() : null;
+	}
+
+	private void deliver() {
+		final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		while (running) {
+			final byte[] payload;
+			try {
+				payload = next(header);
+			} catch (IOException e) {
+				closeReader();
+				pause(POLL_INTERVAL);
+				continue;
+			}
+
+			if (payload == null) {
+				pause(POLL_INTERVAL);
+				continue;
+			}
+
+			final long id = readerNextId - 1;
+			if (id <= acked) {
+				continue;
+			}
+
+			if (!post(id, payload)) {
+				break;
+			}
+
+			ack(id);
+		}
+
+		closeReader();
+		syncAck();
+	}
+
+	/**
+	 * Next committed record after the reader's position, moving on to the next segment and
+	 * deleting the finished one once the writer has left it
+	 */
+	private byte[] next(ByteBuffer header) throws IOException {
+		while (true) {
+			if (reader == null) {
+				final Map.Entry<Long, File> first = segments.firstEntry();
+				if (first == null) {
+					return null;
+				}
+				reader = FileChannel.open(first.getValue().toPath(), StandardOpenOption.READ);
+				readerBase = first.getKey();
+				readerPosition = 0;
+				readerNextId = readerBase;
+			}
+
+			final Position end = committed;
+			final long limit = readerBase == end.base ? end.end : readerBase < end.base ? reader.size() : 0;
+
+			final byte[] payload = read(reader, readerPosition, limit, readerNextId, header);
+			if (payload != null) {
+				readerPosition += HEADER_SIZE + payload.length;
+				readerNextId++;
+				return payload;
+			}
+
+			if (readerBase >= end.base) {
+				return null;
+			}
+
+			// The writer has moved on, so this segment is complete and every record in it delivered
+			if (readerPosition < limit) {
+				corrupted.incrementAndGet();
+			}
+
+			closeReader();
+			syncAck();
+			final File done = segments.remove(readerBase);
+			if (done != null) {
+				done.delete();
+			}
+		}
+	}
+
+	private void closeReader() {
+		if (reader != null) {
+			try {
+				reader.close();
+			} catch (IOException e) {
+				// Read only
+			}
+			reader = null;
+		}
+	}
+
+	/**
+	 * Post until Slack takes the message, rejects it for good or the attempts run out; a message
+	 * given up on is moved to the failed log
+	 *
+	 * @return false if the outbox closed first
+	 */
+	private boolean post(long id, byte[] payload) {
+		final SlackRetryPolicy policy = api.getRetryPolicy() != null ? api.getRetryPolicy() : new SlackRetryPolicy();
+		final String json = new String(payload, StandardCharsets.UTF_8);
+
+		long delay = 0;
+		for (int attempt = 1; running; attempt++) {
+			try {
+				api.callOnce(SlackBodyEncoder.encodePrefix(json, api.getBodyMode()));
+				delivered.incrementAndGet();
+				return true;
+			} catch (IOException e) {
+				fail(id, payload);
+				return true;
+			} catch (SlackException e) {
+				// Slack's own verdict is final, anything else is an outage to wait out, within limits
+				if (e.getResponse() != null && !policy.isRetriable(e.getResponse()) || attempt >= maxAttempts) {
+					fail(id, payload);
+					return true;
+				}
+
+				retried.incrementAndGet();
+				delay = policy.nextDelay(delay, e);
+				pause(delay);
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Append the record to the failed log, where it can be inspected or fed to a new outbox
+	 */
+	private void fail(long id, byte[] payload) {
+		failed.incrementAndGet();
+
+		final ByteBuffer record = record(payload);
+		record.putLong(8, id);
+		try {
+			while (record.hasRemaining()) {
+				failedChannel.write(record);
+			}
+			failedChannel.force(false);
+		} catch (IOException e) {
+			// Counted as failed either way
+		}
+	}
+
+	private void pause(long millis) {
+		final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+		long remaining;
+		while (running && (remaining = deadline - System.nanoTime()) > 0) {
+			LockSupport.parkNanos(this, remaining);
+		}
+	}
+
+	private long readAck() throws IOException {
+		ackBuffer.clear();
+		while (ackBuffer.hasRemaining()) {
+			if (ackChannel.read(ackBuffer, ackBuffer.position()) < 0) {
+				return 0;
+			}
+		}
+
+		return ackBuffer.getLong(0);
+	}
+
+	/**
+	 * Record the id as delivered. The ack file is forced at most once per interval; losing the
+	 * last acks in a crash only means those messages are sent again.
+	 */
+	private void ack(long id) {
+		acked = id;
+		try {
+			ackBuffer.clear();
+			ackBuffer.putLong(0, id);
+			while (ackBuffer.hasRemaining()) {
+				ackChannel.write(ackBuffer, ackBuffer.position());
+			}
+		} catch (IOException e) {
+			// Redelivered after a restart at worst
+		}
+
+		final long now = System.nanoTime();
+		if (now - lastAckSync >= TimeUnit.MILLISECONDS.toNanos(ACK_SYNC_INTERVAL)) {
+			syncAck();
+		}
+	}
+
+	private void syncAck() {
+		lastAckSync = System.nanoTime();
+		try {
+			ackChannel.force(false);
+		} catch (IOException e) {
+			// Redelivered after a restart at worst
+		}
+	}
+
+	/**
+	 * Stop accepting messages, write the queued ones to disk and stop delivering. Whatever is
+	 * still undelivered is sent by the next outbox opened on the directory.
+	 *
+	 * @param timeout
+	 *            milliseconds to wait for the writer and the delivery thread
+	 * @return true if both stopped in time
+	 */
+	public boolean close(long timeout) throws InterruptedException {
+		running = false;
+		LockSupport.unpark(deliverer);
+
+		final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+		for (Thread thread : new Thread[] { writer, deliverer }) {
+			final long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+			if (remaining > 0) {
+				thread.join(remaining);
+			}
+		}
+
+		if (writer.isAlive() || deliverer.isAlive()) {
+			return false;
+		}
+
+		try {
+			ackChannel.close();
+			failedChannel.close();
+		} catch (IOException e) {
+			// Already forced by the delivery thread
+		}
+		unlock();
+
+		return true;
+	}
+
+	private File segmentFile(long base) {
+		return new File(directory, SEGMENT_PREFIX + String.format("%020d", base) + SEGMENT_SUFFIX);
+	}
+
+	private static CompletableFuture<Long> failed(SlackException e) {
+		final CompletableFuture<Long> failed = new CompletableFuture<Long>();
+		failed.completeExceptionally(e);
+		return failed;
+	}
+
+	public boolean isRunning() {
+		return running;
+	}
+
+	public File getDirectory() {
+		return directory;
+	}
+
+	public long getSegmentSize() {
+		return segmentSize;
+	}
+
+	public int getMaxBatch() {
+		return maxBatch;
+	}
+
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	/**
+	 * @return messages on disk that have not been delivered or given up on yet
+	 */
+	public long getPendingCount() {
+		return Math.max(0, committed.lastId - acked);
+	}
+
+	public int getSegmentCount() {
+		return segments.size();
+	}
+
+	public long getAckedId() {
+		return acked;
+	}
+
+	public long getAppendedCount() {
+		return appended.get();
+	}
+
+	/**
+	 * @return fsyncs done by the writer; appended / batches is the average group commit size
+	 */
+	public long getBatchCount() {
+		return batches.get();
+	}
+
+	public long getDeliveredCount() {
+		return delivered.get();
+	}
+
+	/**
+	 * @return messages rejected by Slack or out of attempts, each appended to the failed log
+	 */
+	public long getFailedCount() {
+		return failed.get();
+	}
+
+	public long getRetriedCount() {
+		return retried.get();
+	}
+
+	/**
+	 * @return segments whose tail could not be read back and was skipped
+	 */
+	public long getCorruptedCount() {
+		return corrupted.get();
+	}
+
+	@Override
+	public String toString() {
+		return "SlackOutbox{" + "directory=" + directory + ", segments=" + segments.size() + ", pending="
+				+ getPendingCount() + ", appended=" + appended + ", batches=" + batches + ", delivered=" + delivered
+				+ ", failed=" + failed + ", retried=" + retried + '}';
+	}
+
+	private static class Entry {
+		final ByteBuffer record;
+		final CompletableFuture<Long> done = new CompletableFuture<Long>();
+		long id;
+
+		Entry(ByteBuffer record) {
+			this.record = record;
+		}
+	}
+
+	/**
+	 * End of the log as of the last fsync
+	 */
+	private static class Position {
+		final long base;
+		final long end;
+		final long lastId;
+
+		Position(long base, long end, long lastId) {
+			this.base = base;
+			this.end = end;
+			this.lastId = lastId;
+		}
+	}
+}
@@ -0,0 +1,15 @@
+package net.jonahmiller5.integrations.slack;
+
+/**
+ * What a SlackDispatcher does with a message when its queue is full
+ */
+public enum SlackOverflowPolicy {
+	/** Wait for room in the queue */
+	BLOCK,
+	/** Evict the oldest queued message to make room */
+	DROP_OLDEST,
+	/** Reject the new message */
+	DROP_NEWEST,
+	/** Send the message on the submitting thread */
+	CALLER_RUNS
+}
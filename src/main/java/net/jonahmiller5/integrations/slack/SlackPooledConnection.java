@@ -0,0 +1,416 @@
+package net.jonahmiller5.integrations.slack;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+
+/**
+ * A single keep-alive HTTP/1.1 connection owned by a SlackConnectionPool
+ *
+ * Speaks just enough HTTP to POST a webhook payload and read Slack's answer, so the socket can
+ * be handed back to the pool instead of being torn down after every message.
+ */
+class SlackPooledConnection {
+
+	private static final String HTTPS = "https";
+	private static final String CRLF = "\r\n";
+	private static final int MAX_LINE_LENGTH = 8192;
+
+	private final Socket socket;
+	private final InputStream in;
+	private final OutputStream out;
+	private final boolean absoluteForm;
+	private final long createdAt;
+
+	private long lastUsedAt;
+	private boolean reusable;
+
+	private SlackPooledConnection(Socket socket, boolean absoluteForm) throws IOException {
+		this.socket = socket;
+		this.in = new BufferedInputStream(socket.getInputStream());
+		this.out = new BufferedOutputStream(socket.getOutputStream());
+		this.absoluteForm = absoluteForm;
+		this.createdAt = System.nanoTime();
+		this.lastUsedAt = this.createdAt;
+		this.reusable = true;
+	}
+
+	/**
+	 * Open a connection to the host of the given URL, through the proxy if one is set
+	 */
+	static SlackPooledConnection open(URL url, Proxy proxy, int timeout) throws IOException {
+		final boolean https = HTTPS.equalsIgnoreCase(url.getProtocol());
+		final String host = url.getHost();
+		final int port = url.getPort() == -1 ? url.getDefaultPort() : url.getPort();
+
+		Socket socket;
+		boolean absoluteForm = false;
+
+		if (proxy.type() == Proxy.Type.HTTP) {
+			socket = new Socket();
+			socket.connect(proxy.address(), timeout);
+			if (https) {
+				tunnel(socket, host, port, timeout);
+			} else {
+				absoluteForm = true;
+			}
+		} else if (proxy.type() == Proxy.Type.SOCKS) {
+			socket = new Socket(proxy);
+			socket.connect(InetSocketAddress.createUnresolved(host, port), timeout);
+		} else {
+			socket = new Socket();
+			socket.connect(new InetSocketAddress(host, port), timeout);
+		}
+
+		try {
+			socket.setSoTimeout(timeout);
+			socket.setTcpNoDelay(true);
+			socket.setKeepAlive(true);
+
+			if (https) {
+				final SSLSocket ssl = (SSLSocket) ((SSLSocketFactory) SSLSocketFactory.getDefault())
+						.createSocket(socket, host, port, true);
+				final SSLParameters parameters = ssl.getSSLParameters();
+				parameters.setEndpointIdentificationAlgorithm("HTTPS");
+				ssl.setSSLParameters(parameters);
+				ssl.startHandshake();
+				socket = ssl;
+			}
+
+			return new SlackPooledConnection(socket, absoluteForm);
+		} catch (IOException e) {
+			socket.close();
+			throw e;
+		}
+	}
+
+	private static void tunnel(Socket socket, String host, int port, int timeout) throws IOException {
+		socket.setSoTimeout(timeout);
+
+		final OutputStream tunnelOut = socket.getOutputStream();
+		final String connect = "CONNECT " + host + ":" + port + " HTTP/1.1" + CRLF
+				+ "Host: " + host + ":" + port + CRLF + CRLF;
+		tunnelOut.write(connect.getBytes(StandardCharsets.US_ASCII));
+		tunnelOut.flush();
+
+		// Read byte by byte so nothing past the proxy's header block is consumed
+		final InputStream tunnelIn = socket.getInputStream();
+		final String statusLine = readLine(tunnelIn);
+		if (parseStatus(statusLine) != 200) {
+			socket.close();
+			throw new IOException("Proxy refused tunnel: " + statusLine);
+		}
+
+		String line;
+		do {
+			line = readLine(tunnelIn);
+		} while (!line.isEmpty());
+	}
+
+	/**
+	 * POST the body and read the full response. Throws StaleConnectionException if the request
+	 * could not be written, or if the peer closed the socket cleanly before any part of the
+	 * response arrived. Any other failure to read the response is thrown as it is, since the
+	 * server may have acted on the post by then.
+	 *
+	 * With a negative length the body is sent with chunked transfer encoding, so it never has to
+	 * be buffered to be measured. The write and read times go to the JFR event, if any.
+	 */
+	SlackResponse post(URL url, String contentType, long contentLength, Body body, SlackSendEvent event)
+			throws IOException {
+		reusable = false;
+		lastUsedAt = System.nanoTime();
+
+		final String target = absoluteForm ? url.toExternalForm() : requestTarget(url);
+		final String hostHeader = url.getPort() == -1 ? url.getHost() : url.getHost() + ":" + url.getPort();
+
+		final String head = "POST " + target + " HTTP/1.1" + CRLF
+				+ "Host: " + hostHeader + CRLF
+				+ "Content-Type: " + contentType + CRLF
+				+ (contentLength < 0 ? "Transfer-Encoding: chunked" : "Content-Length: " + contentLength) + CRLF
+				+ "Connection: keep-alive" + CRLF
+				+ CRLF;
+
+		final long writing = System.nanoTime();
+		try {
+			out.write(head.getBytes(StandardCharsets.US_ASCII));
+			if (contentLength < 0) {
+				final ChunkedOutputStream chunked = new ChunkedOutputStream(out);
+				body.writeTo(chunked);
+				chunked.finish();
+			} else {
+				body.writeTo(out);
+			}
+			out.flush();
+		} catch (SocketTimeoutException e) {
+			throw e;
+		} catch (IOException e) {
+			throw new StaleConnectionException(e);
+		}
+
+		// An idle socket the server closed reads as a clean EOF; a reset or a response cut short
+		// may come after the post was handled, so only the former is safe to replay
+		final long reading = System.nanoTime();
+		in.mark(1);
+		if (in.read() < 0) {
+			throw new StaleConnectionException(new EOFException("Connection closed by peer"));
+		}
+		in.reset();
+
+		int status = parseStatus(readLine(in));
+		Headers headers = readHeaders();
+
+		// Skip interim responses, we never ask for 100-continue but proxies may send one anyway
+		while (status >= 100 && status < 200) {
+			status = parseStatus(readLine(in));
+			headers = readHeaders();
+		}
+
+		final byte[] responseBody;
+		boolean keepAlive = !headers.close;
+
+		if (status == 204 || status == 304) {
+			responseBody = new byte[0];
+		} else if (headers.chunked) {
+			responseBody = readChunked();
+		} else if (headers.contentLength >= 0) {
+			responseBody = readFixed(headers.contentLength);
+		} else {
+			responseBody = readToEnd();
+			keepAlive = false;
+		}
+
+		reusable = keepAlive;
+		lastUsedAt = System.nanoTime();
+
+		if (event != null) {
+			event.writeDuration = reading - writing;
+			event.readDuration = lastUsedAt - reading;
+		}
+
+		return new SlackResponse(status, new String(responseBody, StandardCharsets.UTF_8), headers.retryAfter);
+	}
+
+	boolean isReusable() {
+		return reusable && !socket.isClosed();
+	}
+
+	boolean isExpired(long now, long idleTimeoutNanos, long maxLifetimeNanos) {
+		return now - lastUsedAt >= idleTimeoutNanos || now - createdAt >= maxLifetimeNanos;
+	}
+
+	void close() {
+		reusable = false;
+		try {
+			socket.close();
+		} catch (IOException e) {
+			// Nothing left to release
+		}
+	}
+
+	private static String requestTarget(URL url) {
+		final String path = url.getPath() == null || url.getPath().isEmpty() ? "/" : url.getPath();
+		return url.getQuery() == null ? path : path + "?" + url.getQuery();
+	}
+
+	private static int parseStatus(String statusLine) throws IOException {
+		final int start = statusLine.indexOf(' ');
+		if (!statusLine.startsWith("HTTP/") || start < 0 || statusLine.length() < start + 4) {
+			throw new IOException("Malformed status line: " + statusLine);
+		}
+
+		try {
+			return Integer.parseInt(statusLine.substring(start + 1, start + 4));
+		} catch (NumberFormatException e) {
+			throw new IOException("Malformed status line: " + statusLine);
+		}
+	}
+
+	private Headers readHeaders() throws IOException {
+		final Headers headers = new Headers();
+		String line;
+		while (!(line = readLine(in)).isEmpty()) {
+			final int colon = line.indexOf(':');
+			if (colon <= 0) {
+				continue;
+			}
+
+			final String name = line.substring(0, colon).trim();
+			final String value = line.substring(colon + 1).trim();
+
+			if (name.equalsIgnoreCase("Content-Length")) {
+				try {
+					headers.contentLength = Integer.parseInt(value);
+				} catch (NumberFormatException e) {
+					throw new IOException("Malformed Content-Length: " + value);
+				}
+			} else if (name.equalsIgnoreCase("Transfer-Encoding")) {
+				headers.chunked = value.toLowerCase().contains("chunked");
+			} else if (name.equalsIgnoreCase("Connection")) {
+				headers.close = value.equalsIgnoreCase("close");
+			} else if (name.equalsIgnoreCase("Retry-After")) {
+				headers.retryAfter = value;
+			}
+		}
+
+		return headers;
+	}
+
+	private byte[] readFixed(int length) throws IOException {
+		final byte[] data = new byte[length];
+		int read = 0;
+		while (read < length) {
+			final int n = in.read(data, read, length - read);
+			if (n < 0) {
+				throw new EOFException("Connection closed after " + read + " of " + length + " bytes");
+			}
+			read += n;
+		}
+
+		return data;
+	}
+
+	private byte[] readChunked() throws IOException {
+		final ByteArrayOutputStream data = new ByteArrayOutputStream();
+		while (true) {
+			String sizeLine = readLine(in);
+			final int extension = sizeLine.indexOf(';');
+			if (extension >= 0) {
+				sizeLine = sizeLine.substring(0, extension);
+			}
+
+			final int size;
+			try {
+				size = Integer.parseInt(sizeLine.trim(), 16);
+			} catch (NumberFormatException e) {
+				throw new IOException("Malformed chunk size: " + sizeLine);
+			}
+
+			if (size == 0) {
+				break;
+			}
+
+			data.write(readFixed(size));
+			readLine(in);
+		}
+
+		// Trailers
+		while (!readLine(in).isEmpty()) {
+			continue;
+		}
+
+		return data.toByteArray();
+	}
+
+	private byte[] readToEnd() throws IOException {
+		final ByteArrayOutputStream data = new ByteArrayOutputStream();
+		final byte[] buffer = new byte[1024];
+		int n;
+		while ((n = in.read(buffer)) >= 0) {
+			data.write(buffer, 0, n);
+		}
+
+		return data.toByteArray();
+	}
+
+	private static String readLine(InputStream in) throws IOException {
+		final StringBuilder line = new StringBuilder();
+		int c;
+		while ((c = in.read()) >= 0) {
+			if (c == '\n') {
+				final int length = line.length();
+				if (length > 0 && line.charAt(length - 1) == '\r') {
+					line.setLength(length - 1);
+				}
+				return line.toString();
+			}
+
+			if (line.length() == MAX_LINE_LENGTH) {
+				throw new IOException("Response line too long");
+			}
+			line.append((char) c);
+		}
+
+		throw new EOFException("Connection closed by peer");
+	}
+
+	/**
+	 * Request body that writes itself to the connection. It may be written twice if the first
+	 * connection turns out to be stale.
+	 */
+	interface Body {
+		void writeTo(OutputStream out) throws IOException;
+	}
+
+	/**
+	 * Frames everything written to it as HTTP/1.1 chunks, one chunk per write
+	 */
+	private static class ChunkedOutputStream extends OutputStream {
+		private final OutputStream out;
+
+		ChunkedOutputStream(OutputStream out) {
+			this.out = out;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] data, int offset, int length) throws IOException {
+			if (length == 0) {
+				return;
+			}
+
+			out.write((Integer.toHexString(length) + CRLF).getBytes(StandardCharsets.US_ASCII));
+			out.write(data, offset, length);
+			out.write('\r');
+			out.write('\n');
+		}
+
+		@Override
+		public void flush() {
+			// The whole request is flushed once the last chunk is out
+		}
+
+		void finish() throws IOException {
+			out.write(new byte[] { '0', '\r', '\n', '\r', '\n' });
+		}
+	}
+
+	private static class Headers {
+		int contentLength = -1;
+		boolean chunked;
+		boolean close;
+		String retryAfter;
+	}
+
+	/**
+	 * The request could not be written, or the socket was closed cleanly before any part of the
+	 * response arrived: the pooled socket had been closed by the server while idle, so the post is
+	 * safe to replay on a fresh connection
+	 */
+	static class StaleConnectionException extends IOException {
+
+		private static final long serialVersionUID = 1L;
+
+		StaleConnectionException(IOException cause) {
+			super(cause);
+		}
+	}
+}
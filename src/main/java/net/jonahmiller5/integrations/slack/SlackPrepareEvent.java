@@ -0,0 +1,39 @@
+package net.jonahmiller5.integrations.slack;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR event for one SlackMessage.prepare(), building the message's JSON tree
+ *
+ * Most messages prepare in a few microseconds, so only slower ones are recorded by default;
+ * lower the threshold in the recording settings to see them all.
+ */
+@Name("net.jonahmiller5.slack.Prepare")
+@Label("Slack Prepare")
+@Category("Slack")
+@Description("Building the JSON tree of a Slack message")
+@StackTrace(false)
+@Threshold("10 us")
+final class SlackPrepareEvent extends Event {
+
+	private static final SlackPrepareEvent PROBE = new SlackPrepareEvent();
+
+	@Label("Blocks")
+	int blockCount;
+
+	@Label("Attachments")
+	int attachmentCount;
+
+	/**
+	 * @return whether a recording wants these events, without allocating one to ask
+	 */
+	static boolean enabled() {
+		return PROBE.isEnabled();
+	}
+}
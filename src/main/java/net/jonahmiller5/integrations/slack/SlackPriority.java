@@ -0,0 +1,48 @@
+package net.jonahmiller5.integrations.slack;
+
+/**
+ * Lane a message takes through a SlackDispatcher, highest first
+ */
+public enum SlackPriority {
+	/** Pages, e.g. messages with a "danger" attachment */
+	HIGH(16),
+	/** Messages with a "warning" attachment */
+	MEDIUM(4),
+	/** Everything else: "good" and uncolored messages, deploy notices, digests */
+	LOW(1);
+
+	private static final String DANGER = "danger";
+	private static final String WARNING = "warning";
+
+	private final int weight;
+
+	private SlackPriority(int weight) {
+		this.weight = weight;
+	}
+
+	/**
+	 * @return share of sends the lane gets under WEIGHTED scheduling while every lane is backed up
+	 */
+	public int getWeight() {
+		return weight;
+	}
+
+	/**
+	 * Derive the priority from attachment colors: danger &gt; warning &gt; anything else
+	 */
+	public static SlackPriority of(SlackMessage message) {
+		SlackPriority priority = LOW;
+		for (SlackAttachment attachment : message.getAttachments()) {
+			final String color = attachment.getColor();
+			if (DANGER.equals(color)) {
+				return HIGH;
+			}
+
+			if (WARNING.equals(color)) {
+				priority = MEDIUM;
+			}
+		}
+
+		return priority;
+	}
+}
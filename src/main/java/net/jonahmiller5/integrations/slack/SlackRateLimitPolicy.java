@@ -0,0 +1,16 @@
+package net.jonahmiller5.integrations.slack;
+
+/**
+ * What SlackApi does with a message that would exceed its webhook's rate limit
+ */
+public enum SlackRateLimitPolicy {
+	/** Block the calling thread until the message may be sent */
+	WAIT,
+	/** Throw a SlackException without sending */
+	FAIL_FAST,
+	/**
+	 * Return at once and send the message on a timer when its slot comes up, failing it instead
+	 * if the slot is further off than the limiter's max deferral
+	 */
+	DEFER
+}
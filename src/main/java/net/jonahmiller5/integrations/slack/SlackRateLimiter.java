@@ -0,0 +1,228 @@
+package net.jonahmiller5.integrations.slack;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Token bucket rate limiter keyed by webhook URL
+ *
+ * Each key costs a single AtomicLong holding the theoretical arrival time of the next message
+ * (the GCRA form of a token bucket), so acquiring is one compare-and-set with no lock, and one
+ * limiter can be shared by thousands of webhooks.
+ *
+ * Slack allows roughly one message per second per incoming webhook, with short bursts.
+ */
+public class SlackRateLimiter {
+
+	private static final double DEFAULT_RATE = 1.0;
+	private static final int DEFAULT_BURST = 3;
+	private static final long DEFAULT_MAX_DEFERRAL = TimeUnit.MINUTES.toNanos(1);
+
+	private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<String, AtomicLong>();
+
+	private final double rate;
+	private final int burst;
+	private final long interval;
+	private final long tolerance;
+	private final SlackRateLimitPolicy policy;
+	private final AtomicLong rejected = new AtomicLong();
+
+	private volatile long maxDeferral = DEFAULT_MAX_DEFERRAL;
+
+	public SlackRateLimiter() {
+		this(DEFAULT_RATE, DEFAULT_BURST);
+	}
+
+	public SlackRateLimiter(double rate, int burst) {
+		this(rate, burst, SlackRateLimitPolicy.WAIT);
+	}
+
+	/**
+	 * @param rate
+	 *            messages per second allowed per key
+	 * @param burst
+	 *            messages that may be sent back to back after a quiet period
+	 * @param policy
+	 *            what SlackApi does when a message is over the limit
+	 */
+	public SlackRateLimiter(double rate, int burst, SlackRateLimitPolicy policy) {
+		if (!(rate > 0)) {
+			throw new IllegalArgumentException("Invalid Rate @ SlackRateLimiter");
+		}
+
+		if (burst < 1) {
+			throw new IllegalArgumentException("Invalid Burst @ SlackRateLimiter");
+		}
+
+		this.rate = rate;
+		this.burst = burst;
+		this.interval = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / rate));
+		this.tolerance = (burst - 1) * interval;
+		this.policy = policy == null ? SlackRateLimitPolicy.WAIT : policy;
+	}
+
+	/**
+	 * Take a slot if one is free right now
+	 * 
+	 * @return false if the key is over its limit, in which case nothing is consumed
+	 */
+	public boolean tryAcquire(String key) {
+		final AtomicLong bucket = bucket(key);
+		while (true) {
+			final long now = System.nanoTime();
+			final long tat = bucket.get();
+			final long base = Math.max(tat, now);
+
+			if (base - now > tolerance) {
+				return false;
+			}
+
+			if (bucket.compareAndSet(tat, base + interval)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Take the next slot for the key, free or not
+	 * 
+	 * @return nanoseconds to wait before the slot comes up, 0 if it may be used now
+	 */
+	public long reserve(String key) {
+		final AtomicLong bucket = bucket(key);
+		while (true) {
+			final long now = System.nanoTime();
+			final long tat = bucket.get();
+			final long base = Math.max(tat, now);
+
+			if (bucket.compareAndSet(tat, base + interval)) {
+				return Math.max(0, base - now - tolerance);
+			}
+		}
+	}
+
+	/**
+	 * Take the next slot for the key if it comes up within the max deferral
+	 * 
+	 * @return nanoseconds to wait before the slot comes up, 0 if it may be used now, or -1 if it
+	 *         is further off than the max deferral, in which case nothing is consumed and the
+	 *         rejection is counted
+	 */
+	public long defer(String key) {
+		final AtomicLong bucket = bucket(key);
+		while (true) {
+			final long now = System.nanoTime();
+			final long tat = bucket.get();
+			final long base = Math.max(tat, now);
+			final long delay = Math.max(0, base - now - tolerance);
+
+			if (delay > maxDeferral) {
+				rejected.incrementAndGet();
+				return -1;
+			}
+
+			if (bucket.compareAndSet(tat, base + interval)) {
+				return delay;
+			}
+		}
+	}
+
+	/**
+	 * Take the next slot for the key and park the calling thread until it comes up
+	 */
+	public void acquire(String key) throws InterruptedException {
+		final long deadline = System.nanoTime() + reserve(key);
+
+		long remaining;
+		while ((remaining = deadline - System.nanoTime()) > 0) {
+			LockSupport.parkNanos(this, remaining);
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+		}
+	}
+
+	/**
+	 * Forget keys whose bucket has refilled completely; they behave exactly like new keys
+	 */
+	public void purgeIdle() {
+		final long now = System.nanoTime();
+		final Iterator<Map.Entry<String, AtomicLong>> it = buckets.entrySet().iterator();
+		while (it.hasNext()) {
+			final long tat = it.next().getValue().get();
+			if (tat == Long.MIN_VALUE || tat - now <= 0) {
+				it.remove();
+			}
+		}
+	}
+
+	private AtomicLong bucket(String key) {
+		AtomicLong bucket = buckets.get(key);
+		if (bucket == null) {
+			// Long.MIN_VALUE reads as "long ago", so a new key starts with a full burst
+			final AtomicLong fresh = new AtomicLong(Long.MIN_VALUE);
+			bucket = buckets.putIfAbsent(key, fresh);
+			if (bucket == null) {
+				bucket = fresh;
+			}
+		}
+
+		return bucket;
+	}
+
+	public double getRate() {
+		return rate;
+	}
+
+	public int getBurst() {
+		return burst;
+	}
+
+	public SlackRateLimitPolicy getPolicy() {
+		return policy;
+	}
+
+	/**
+	 * Furthest ahead a DEFER post may be scheduled; past it the post fails instead, so a backlog
+	 * over the limit cannot pile up on the timer without bound. One minute by default.
+	 * 
+	 * @param maxDeferral
+	 *            milliseconds
+	 */
+	public SlackRateLimiter setMaxDeferral(long maxDeferral) {
+		if (maxDeferral < 0) {
+			throw new IllegalArgumentException("Invalid Max Deferral @ SlackRateLimiter");
+		}
+
+		this.maxDeferral = TimeUnit.MILLISECONDS.toNanos(maxDeferral);
+		return this;
+	}
+
+	/**
+	 * @return milliseconds
+	 */
+	public long getMaxDeferral() {
+		return TimeUnit.NANOSECONDS.toMillis(maxDeferral);
+	}
+
+	/**
+	 * @return DEFER posts refused for being further off than the max deferral
+	 */
+	public long getRejectedCount() {
+		return rejected.get();
+	}
+
+	public int getKeyCount() {
+		return buckets.size();
+	}
+
+	@Override
+	public String toString() {
+		return "SlackRateLimiter{" + "rate=" + rate + ", burst=" + burst + ", policy=" + policy + ", keys="
+				+ buckets.size() + ", rejected=" + rejected + '}';
+	}
+}
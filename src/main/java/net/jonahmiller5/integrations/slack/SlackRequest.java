@@ -0,0 +1,124 @@
+package net.jonahmiller5.integrations.slack;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Proxy;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One webhook post as a SlackTransport sees it: where it goes and a body that writes itself
+ *
+ * The body is encoded as it is written, so a transport that streams it to a socket never holds
+ * the whole payload. It may be written more than once, e.g. to replay a post on a fresh
+ * connection.
+ */
+public final class SlackRequest {
+
+	private static final String FORM_URLENCODED = "application/x-www-form-urlencoded";
+	private static final String APPLICATION_JSON = "application/json; charset=utf-8";
+
+	private final String url;
+	private final Proxy proxy;
+	private final int timeout;
+	private final SlackBodyMode mode;
+	private final long contentLength;
+	private final SlackPooledConnection.Body body;
+	private final SlackSendEvent event;
+	private final long id;
+	private final int attempt;
+
+	SlackRequest(String url, Proxy proxy, int timeout, SlackBodyMode mode, long contentLength,
+			SlackPooledConnection.Body body, SlackSendEvent event, long id, int attempt) {
+		this.url = url;
+		this.proxy = proxy;
+		this.timeout = timeout;
+		this.mode = mode;
+		this.contentLength = contentLength;
+		this.body = body;
+		this.event = event;
+		this.id = id;
+		this.attempt = attempt;
+	}
+
+	public String getUrl() {
+		return url;
+	}
+
+	public Proxy getProxy() {
+		return proxy;
+	}
+
+	/**
+	 * @return connect timeout in milliseconds
+	 */
+	public int getTimeout() {
+		return timeout;
+	}
+
+	public SlackBodyMode getMode() {
+		return mode;
+	}
+
+	public String getContentType() {
+		return mode == SlackBodyMode.JSON ? APPLICATION_JSON : FORM_URLENCODED;
+	}
+
+	/**
+	 * @return body length in bytes, or -1 if it is only known once written, in which case it
+	 *         should be sent chunked
+	 */
+	public long getContentLength() {
+		return contentLength;
+	}
+
+	public void writeTo(OutputStream out) throws IOException {
+		body.writeTo(out);
+	}
+
+	public byte[] toByteArray() throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream(contentLength > 0 ? (int) contentLength : 1024);
+		body.writeTo(out);
+
+		return out.toByteArray();
+	}
+
+	/**
+	 * @return the JFR event of this post for transports to fill in its phases, or null if no
+	 *         recording wants one
+	 */
+	SlackSendEvent getEvent() {
+		return event;
+	}
+
+	/**
+	 * @return correlation id for delivery listeners, 0 if the post is not tracked
+	 */
+	long getId() {
+		return id;
+	}
+
+	/**
+	 * @return 1 for the first attempt at posting the message
+	 */
+	int getAttempt() {
+		return attempt;
+	}
+
+	/**
+	 * @return the body as byte arrays sent back to back, without copying an already encoded body
+	 */
+	List<byte[]> getSegments() throws IOException {
+		if (body instanceof SlackBody) {
+			return ((SlackBody) body).getSegments();
+		}
+
+		return Collections.singletonList(toByteArray());
+	}
+
+	@Override
+	public String toString() {
+		return "SlackRequest{" + "mode=" + mode + ", contentLength=" + contentLength + ", timeout=" + timeout + '}';
+	}
+}
@@ -0,0 +1,120 @@
+package net.jonahmiller5.integrations.slack;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Result of posting a message to a Slack webhook
+ */
+public class SlackResponse {
+
+	private static final String OK = "ok";
+
+	private final int statusCode;
+	private final String body;
+	private final long retryAfter;
+	private final long bodySize;
+	private final long bytesSaved;
+
+	public SlackResponse(int statusCode, String body) {
+		this(statusCode, body, null);
+	}
+
+	/**
+	 * @param retryAfter
+	 *            raw Retry-After header, either delta seconds or an HTTP date, may be null
+	 */
+	public SlackResponse(int statusCode, String body, String retryAfter) {
+		this.statusCode = statusCode;
+		this.body = body == null ? "" : body;
+		this.retryAfter = parseRetryAfter(retryAfter);
+		this.bodySize = -1;
+		this.bytesSaved = 0;
+	}
+
+	/**
+	 * Copy of a response with the size of the request body that produced it
+	 */
+	SlackResponse(SlackResponse response, long bodySize, long bytesSaved) {
+		this.statusCode = response.statusCode;
+		this.body = response.body;
+		this.retryAfter = response.retryAfter;
+		this.bodySize = bodySize;
+		this.bytesSaved = bytesSaved;
+	}
+
+	private static long parseRetryAfter(String retryAfter) {
+		if (retryAfter == null || retryAfter.trim().isEmpty()) {
+			return -1;
+		}
+
+		final String value = retryAfter.trim();
+		try {
+			return Math.max(0, Long.parseLong(value) * 1000);
+		} catch (NumberFormatException e) {
+			// Not delta seconds, try an HTTP date
+		}
+
+		try {
+			final Instant at = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+			return Math.max(0, at.toEpochMilli() - System.currentTimeMillis());
+		} catch (DateTimeParseException e) {
+			return -1;
+		}
+	}
+
+	public int getStatusCode() {
+		return statusCode;
+	}
+
+	public String getBody() {
+		return body;
+	}
+
+	/**
+	 * @return milliseconds Slack asked us to wait before posting again, or -1 if it did not say
+	 */
+	public long getRetryAfter() {
+		return retryAfter;
+	}
+
+	/**
+	 * @return bytes of the request body that was posted, or -1 if unknown
+	 */
+	public long getBodySize() {
+		return bodySize;
+	}
+
+	/**
+	 * @return bytes the request body saved over a form post, 0 for form posts
+	 */
+	public long getBytesSaved() {
+		return bytesSaved;
+	}
+
+	public boolean isOk() {
+		return statusCode >= 200 && statusCode < 300;
+	}
+
+	/**
+	 * Slack answers failed webhook posts with a bare error code in the body, e.g. "invalid_payload"
+	 * 
+	 * @return error code, or null if the post succeeded
+	 */
+	public String getErrorCode() {
+		if (isOk()) {
+			return null;
+		}
+
+		final String code = body.trim();
+		return code.isEmpty() || code.equals(OK) ? null : code;
+	}
+
+	@Override
+	public String toString() {
+		return "SlackResponse{" + "statusCode=" + statusCode + ", body='" + body.trim() + '\'' + ", retryAfter="
+				+ retryAfter + ", bodySize=" + bodySize + ", bytesSaved=" + bytesSaved + '}';
+	}
+}
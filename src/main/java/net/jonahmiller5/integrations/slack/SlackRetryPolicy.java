@@ -0,0 +1,187 @@
+package net.jonahmiller5.integrations.slack;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Decides which failed posts are worth retrying and how long to back off before the next try
+ *
+ * 429s, 5xx answers and IO failures are retried; other 4xx answers and Slack error codes that
+ * no retry can fix (invalid_payload, channel_not_found, ...) are not. Delays use decorrelated
+ * jitter, so callers that failed together do not retry together, and never undercut the
+ * Retry-After Slack sent. Retries are run from a shared timer thread rather than by sleeping
+ * the thread that made the failed attempt.
+ */
+public class SlackRetryPolicy {
+
+	private static final int DEFAULT_MAX_ATTEMPTS = 5;
+	private static final long DEFAULT_BASE_DELAY = 500;
+	private static final long DEFAULT_MAX_DELAY = 30000;
+
+	private static final int TOO_MANY_REQUESTS = 429;
+
+	private static final Set<String> PERMANENT_ERRORS = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(
+			"invalid_payload", "no_text", "too_many_attachments", "channel_not_found", "channel_is_archived",
+			"no_service", "no_service_id", "no_team", "team_disabled", "invalid_token", "action_prohibited",
+			"posting_to_general_channel_denied", "user_not_found")));
+
+	private static volatile ScheduledExecutorService timer;
+
+	private final int maxAttempts;
+	private final long baseDelay;
+	private final long maxDelay;
+
+	public SlackRetryPolicy() {
+		this(DEFAULT_MAX_ATTEMPTS);
+	}
+
+	public SlackRetryPolicy(int maxAttempts) {
+		this(maxAttempts, DEFAULT_BASE_DELAY, DEFAULT_MAX_DELAY);
+	}
+
+	/**
+	 * @param maxAttempts
+	 *            total tries per message, including the first
+	 * @param baseDelay
+	 *            smallest backoff in milliseconds
+	 * @param maxDelay
+	 *            largest backoff in milliseconds, unless Slack's Retry-After asks for more
+	 */
+	public SlackRetryPolicy(int maxAttempts, long baseDelay, long maxDelay) {
+		if (maxAttempts < 1) {
+			throw new IllegalArgumentException("Invalid Max Attempts @ SlackRetryPolicy");
+		}
+
+		if (baseDelay < 1 || maxDelay < baseDelay) {
+			throw new IllegalArgumentException("Invalid Delay Range @ SlackRetryPolicy");
+		}
+
+		this.maxAttempts = maxAttempts;
+		this.baseDelay = baseDelay;
+		this.maxDelay = maxDelay;
+	}
+
+	/**
+	 * @return true if the failure is transient and the same post may succeed later
+	 */
+	public boolean isRetriable(Throwable failure) {
+		if (!(failure instanceof SlackException)) {
+			return failure instanceof IOException && !(failure instanceof MalformedURLException);
+		}
+
+		final SlackResponse response = ((SlackException) failure).getResponse();
+		if (response != null) {
+			return isRetriable(response);
+		}
+
+		return failure.getCause() != null && isRetriable(failure.getCause());
+	}
+
+	public boolean isRetriable(SlackResponse response) {
+		if (response.isOk() || isPermanent(response.getErrorCode())) {
+			return false;
+		}
+
+		return response.getStatusCode() == TOO_MANY_REQUESTS || response.getStatusCode() >= 500;
+	}
+
+	/**
+	 * @return true if Slack answered with an error code that no retry can fix
+	 */
+	public static boolean isPermanent(String errorCode) {
+		return errorCode != null && PERMANENT_ERRORS.contains(errorCode);
+	}
+
+	/**
+	 * Backoff before the next attempt
+	 *
+	 * @param previousDelay
+	 *            delay used before the failed attempt, 0 after the first try
+	 * @param failure
+	 *            what the failed attempt threw
+	 * @return milliseconds to wait
+	 */
+	public long nextDelay(long previousDelay, Throwable failure) {
+		final long ceiling = Math.max(baseDelay + 1, Math.min(maxDelay, Math.max(previousDelay, baseDelay) * 3));
+		long delay = Math.min(maxDelay, ThreadLocalRandom.current().nextLong(baseDelay, ceiling));
+
+		if (failure instanceof SlackException && ((SlackException) failure).getResponse() != null) {
+			delay = Math.max(delay, ((SlackException) failure).getResponse().getRetryAfter());
+		}
+
+		return delay;
+	}
+
+	/**
+	 * Run the task on the shared retry timer once the delay has passed
+	 */
+	public void schedule(long delay, Runnable task) {
+		timer().schedule(task, delay, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Park the calling thread for the delay, for callers that chose a blocking send
+	 */
+	void await(long delay) throws InterruptedException {
+		final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+
+		long remaining;
+		while ((remaining = deadline - System.nanoTime()) > 0) {
+			LockSupport.parkNanos(this, remaining);
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+		}
+	}
+
+	private static ScheduledExecutorService timer() {
+		ScheduledExecutorService result = timer;
+		if (result == null) {
+			synchronized (SlackRetryPolicy.class) {
+				result = timer;
+				if (result == null) {
+					final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+						@Override
+						public Thread newThread(Runnable runnable) {
+							final Thread thread = new Thread(runnable, "slack-retry-timer");
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+					executor.setRemoveOnCancelPolicy(true);
+					result = timer = executor;
+				}
+			}
+		}
+
+		return result;
+	}
+
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	public long getBaseDelay() {
+		return baseDelay;
+	}
+
+	public long getMaxDelay() {
+		return maxDelay;
+	}
+
+	@Override
+	public String toString() {
+		return "SlackRetryPolicy{" + "maxAttempts=" + maxAttempts + ", baseDelay=" + baseDelay + ", maxDelay="
+				+ maxDelay + '}';
+	}
+}
@@ -0,0 +1,14 @@
+package net.jonahmiller5.integrations.slack;
+
+/**
+ * How a SlackDispatcher picks the next message among its priority lanes
+ */
+public enum SlackSchedulingPolicy {
+	/**
+	 * Always the highest non-empty lane. A lower lane's oldest message that has waited past the
+	 * starvation limit goes first, so a steady stream of pages cannot hold it back forever.
+	 */
+	STRICT,
+	/** Smooth weighted round robin over the non-empty lanes, by SlackPriority weight */
+	WEIGHTED
+}
@@ -0,0 +1,102 @@
+package net.jonahmiller5.integrations.slack;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for one attempt at posting to a webhook, from handing the request to the transport
+ * to having Slack's answer or giving up
+ *
+ * The connect, write and read phases are filled in by transports that can tell them apart: the
+ * connection pool and the HttpURLConnection transport. They stay -1 otherwise, and connect stays
+ * 0 when a pooled connection was reused. Async posts end on whichever thread completes them.
+ */
+@Name("net.jonahmiller5.slack.Send")
+@Label("Slack Send")
+@Category("Slack")
+@Description("One attempt at posting a message to a Slack webhook")
+@StackTrace(false)
+final class SlackSendEvent extends Event {
+
+	private static final SlackSendEvent PROBE = new SlackSendEvent();
+
+	@Label("Webhook Host")
+	String host;
+
+	@Label("Transport")
+	String transport;
+
+	@Label("Async")
+	boolean async;
+
+	@Label("Body Size")
+	@Description("Request body size, -1 if the post failed before the body was written")
+	@DataAmount
+	long bodySize = -1;
+
+	@Label("Status")
+	@Description("HTTP status, 0 if there was no answer")
+	int status;
+
+	@Label("Error")
+	@Description("Slack's error code, or the failure if there was no answer")
+	String error;
+
+	@Label("Connect")
+	@Timespan(Timespan.NANOSECONDS)
+	long connectDuration = -1;
+
+	@Label("Write")
+	@Description("Writing the request head and body, including streamed encoding")
+	@Timespan(Timespan.NANOSECONDS)
+	long writeDuration = -1;
+
+	@Label("Read")
+	@Description("Waiting for and reading the answer")
+	@Timespan(Timespan.NANOSECONDS)
+	long readDuration = -1;
+
+	static boolean enabled() {
+		return PROBE.isEnabled();
+	}
+
+	/**
+	 * @return a started event if a recording wants one, else null
+	 */
+	static SlackSendEvent start(String host, boolean async) {
+		if (!enabled()) {
+			return null;
+		}
+
+		final SlackSendEvent event = new SlackSendEvent();
+		event.host = host;
+		event.async = async;
+		event.begin();
+
+		return event;
+	}
+
+	/**
+	 * End with Slack's answer
+	 */
+	void finish(SlackResponse response, long bodySize) {
+		this.bodySize = bodySize;
+		this.status = response.getStatusCode();
+		this.error = response.getErrorCode();
+		this.commit();
+	}
+
+	/**
+	 * End without an answer
+	 */
+	void fail(Throwable failure) {
+		this.error = String.valueOf(failure);
+		this.commit();
+	}
+}
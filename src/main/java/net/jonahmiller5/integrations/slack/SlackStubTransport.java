@@ -0,0 +1,273 @@
+package net.jonahmiller5.integrations.slack;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-memory transport that answers posts itself, for tests and offline benchmarks
+ *
+ * Every post is encoded as it would be on the wire and its JSON payload recorded, up to the
+ * record limit. Answers come from a script of one-off responses and failures, then from the
+ * default response, after the configured latency. Async posts wait out the latency on a timer,
+ * so they hold no thread, like a real non-blocking client.
+ *
+ * Usage: new SlackApi(url).setTransport(new SlackStubTransport().setLatency(20).enqueueResponse(429, "rate_limited", 1))
+ */
+public class SlackStubTransport implements SlackTransport {
+
+	private static final int DEFAULT_RECORD_LIMIT = 10000;
+	private static final String PAYLOAD = "payload=";
+
+	private final ConcurrentLinkedQueue<Object> script = new ConcurrentLinkedQueue<Object>();
+	private final List<String> payloads = Collections.synchronizedList(new ArrayList<String>());
+
+	private final AtomicLong requests = new AtomicLong();
+	private final AtomicLong bytesReceived = new AtomicLong();
+	private final AtomicLong failures = new AtomicLong();
+
+	private volatile SlackResponse response = new SlackResponse(200, "ok");
+	private volatile long minLatency;
+	private volatile long maxLatency;
+	private volatile int recordLimit = DEFAULT_RECORD_LIMIT;
+
+	public SlackStubTransport() {
+	}
+
+	/**
+	 * @param latency
+	 *            milliseconds every post takes
+	 * @return SlackStubTransport
+	 */
+	public SlackStubTransport setLatency(long latency) {
+		return setLatency(latency, latency);
+	}
+
+	/**
+	 * @param minLatency
+	 *            fewest milliseconds a post takes
+	 * @param maxLatency
+	 *            most milliseconds a post takes; each post draws uniformly in between
+	 * @return SlackStubTransport
+	 */
+	public SlackStubTransport setLatency(long minLatency, long maxLatency) {
+		if (minLatency < 0 || maxLatency < minLatency) {
+			throw new IllegalArgumentException("Invalid Latency @ SlackStubTransport");
+		}
+
+		this.minLatency = minLatency;
+		this.maxLatency = maxLatency;
+
+		return this;
+	}
+
+	/**
+	 * Answer every post that the script does not cover with this status and body
+	 */
+	public SlackStubTransport setResponse(int status, String body) {
+		this.response = new SlackResponse(status, body);
+
+		return this;
+	}
+
+	/**
+	 * @param retryAfter
+	 *            seconds sent as the Retry-After header
+	 */
+	public SlackStubTransport setResponse(int status, String body, long retryAfter) {
+		this.response = new SlackResponse(status, body, Long.toString(retryAfter));
+
+		return this;
+	}
+
+	/**
+	 * Answer the next unscripted post with this status and body, once
+	 */
+	public SlackStubTransport enqueueResponse(int status, String body) {
+		script.add(new SlackResponse(status, body));
+
+		return this;
+	}
+
+	public SlackStubTransport enqueueResponse(int status, String body, long retryAfter) {
+		script.add(new SlackResponse(status, body, Long.toString(retryAfter)));
+
+		return this;
+	}
+
+	/**
+	 * Fail the next unscripted post with this exception, once, as if the connection broke
+	 */
+	public SlackStubTransport enqueueFailure(IOException failure) {
+		script.add(failure);
+
+		return this;
+	}
+
+	/**
+	 * @param recordLimit
+	 *            payloads kept for getPayloads; later posts are only counted
+	 * @return SlackStubTransport
+	 */
+	public SlackStubTransport setRecordLimit(int recordLimit) {
+		if (recordLimit < 0) {
+			throw new IllegalArgumentException("Invalid Record Limit @ SlackStubTransport");
+		}
+
+		this.recordLimit = recordLimit;
+
+		return this;
+	}
+
+	@Override
+	public SlackResponse send(SlackRequest request) throws IOException {
+		final Object answer = receive(request);
+
+		final long deadline = System.nanoTime() + latency();
+		long remaining;
+		while ((remaining = deadline - System.nanoTime()) > 0) {
+			LockSupport.parkNanos(this, remaining);
+			if (Thread.interrupted()) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted waiting for the stub");
+			}
+		}
+
+		return answer(answer);
+	}
+
+	@Override
+	public CompletableFuture<SlackResponse> sendAsync(SlackRequest request) {
+		final Object answer;
+		try {
+			answer = receive(request);
+		} catch (IOException e) {
+			final CompletableFuture<SlackResponse> failed = new CompletableFuture<SlackResponse>();
+			failed.completeExceptionally(e);
+			return failed;
+		}
+
+		final CompletableFuture<SlackResponse> result = new CompletableFuture<SlackResponse>();
+		final Runnable reply = new Runnable() {
+			@Override
+			public void run() {
+				try {
+					result.complete(answer(answer));
+				} catch (IOException e) {
+					result.completeExceptionally(e);
+				}
+			}
+		};
+
+		final long latency = latency();
+		if (latency > 0) {
+			CompletableFuture.delayedExecutor(latency, TimeUnit.NANOSECONDS).execute(reply);
+		} else {
+			reply.run();
+		}
+
+		return result;
+	}
+
+	/**
+	 * Read and record the body, and pick the answer
+	 */
+	private Object receive(SlackRequest request) throws IOException {
+		final byte[] body = request.toByteArray();
+		requests.incrementAndGet();
+		bytesReceived.addAndGet(body.length);
+
+		if (payloads.size() < recordLimit) {
+			payloads.add(payload(request.getMode(), body));
+		}
+
+		final Object scripted = script.poll();
+		return scripted != null ? scripted : response;
+	}
+
+	private SlackResponse answer(Object answer) throws IOException {
+		if (answer instanceof IOException) {
+			failures.incrementAndGet();
+			throw (IOException) answer;
+		}
+
+		return (SlackResponse) answer;
+	}
+
+	private long latency() {
+		final long min = minLatency;
+		final long max = maxLatency;
+		final long millis = max > min ? ThreadLocalRandom.current().nextLong(min, max + 1) : min;
+
+		return TimeUnit.MILLISECONDS.toNanos(millis);
+	}
+
+	private static String payload(SlackBodyMode mode, byte[] body) {
+		final String text = new String(body, StandardCharsets.UTF_8);
+		if (mode == SlackBodyMode.FORM && text.startsWith(PAYLOAD)) {
+			try {
+				return URLDecoder.decode(text.substring(PAYLOAD.length()), "UTF-8");
+			} catch (Exception e) {
+				return text;
+			}
+		}
+
+		return text;
+	}
+
+	/**
+	 * @return JSON payloads of the recorded posts, oldest first
+	 */
+	public List<String> getPayloads() {
+		synchronized (payloads) {
+			return new ArrayList<String>(payloads);
+		}
+	}
+
+	/**
+	 * Forget recorded payloads, scripted answers and counts
+	 */
+	public void reset() {
+		script.clear();
+		payloads.clear();
+		requests.set(0);
+		bytesReceived.set(0);
+		failures.set(0);
+	}
+
+	public long getRequestCount() {
+		return requests.get();
+	}
+
+	public long getBytesReceived() {
+		return bytesReceived.get();
+	}
+
+	/**
+	 * @return posts failed with a scripted exception
+	 */
+	public long getFailureCount() {
+		return failures.get();
+	}
+
+	public int getScriptedCount() {
+		return script.size();
+	}
+
+	@Override
+	public String toString() {
+		return "SlackStubTransport{" + "latency=" + minLatency + (maxLatency > minLatency ? ".." + maxLatency : "")
+				+ ", response=" + response.getStatusCode() + ", requests=" + requests.get() + ", failures="
+				+ failures.get() + '}';
+	}
+}
@@ -0,0 +1,53 @@
+package net.jonahmiller5.integrations.slack;
+
+/**
+ * One destination of a broadcast: a webhook plus the channel and username to post as there
+ */
+public class SlackTarget {
+
+	private final SlackApi api;
+	private String channel = null;
+	private String username = null;
+
+	public SlackTarget(SlackApi api) {
+		if (api == null) {
+			throw new IllegalArgumentException("Missing SlackApi @ SlackTarget");
+		}
+
+		this.api = api;
+	}
+
+	public SlackTarget(SlackApi api, String channel) {
+		this(api);
+		this.channel = channel;
+	}
+
+	public SlackTarget setChannel(String channel) {
+		this.channel = channel;
+
+		return this;
+	}
+
+	public SlackTarget setUsername(String username) {
+		this.username = username;
+
+		return this;
+	}
+
+	public SlackApi getApi() {
+		return api;
+	}
+
+	public String getChannel() {
+		return channel;
+	}
+
+	public String getUsername() {
+		return username;
+	}
+
+	@Override
+	public String toString() {
+		return "SlackTarget{" + "channel='" + channel + '\'' + ", username='" + username + '\'' + '}';
+	}
+}
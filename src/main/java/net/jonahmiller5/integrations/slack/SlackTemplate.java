@@ -0,0 +1,159 @@
+package net.jonahmiller5.integrations.slack;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A message serialized once, with named placeholders left in its text to fill in per post
+ *
+ * Any string in the message may hold placeholders written {{name}}, names being letters, digits,
+ * '_', '.' and '-': block and attachment texts, URLs, channel and so on. The message is encoded
+ * to UTF-8 JSON when the template is made and split around its placeholders. Rendering copies the
+ * fixed parts and escapes each value into the gap it fills, so it costs one pass over the output
+ * and builds no blocks and no Gson tree. Values other than strings are put in as their
+ * toString. The result is what the message would give with the values typed in place of the
+ * placeholders.
+ *
+ * Length limits the model applies, e.g. section texts cut to Slack's maximum, apply to the text
+ * with its placeholders, not to the values put in their place.
+ *
+ * Templates never change once made, so one can be rendered from any number of threads at once.
+ *
+ * Usage: new SlackTemplate(new SlackMessage("*{{service}}* failed {{count}} times")) then
+ * api.call(template, values)
+ */
+public final class SlackTemplate {
+
+	private static final byte OPEN = '{';
+	private static final byte CLOSE = '}';
+
+	private static final boolean[] NAME_CHARS = new boolean[128];
+
+	static {
+		for (char c = 'a'; c <= 'z'; c++) {
+			NAME_CHARS[c] = true;
+		}
+		for (char c = 'A'; c <= 'Z'; c++) {
+			NAME_CHARS[c] = true;
+		}
+		for (char c = '0'; c <= '9'; c++) {
+			NAME_CHARS[c] = true;
+		}
+		NAME_CHARS['_'] = true;
+		NAME_CHARS['.'] = true;
+		NAME_CHARS['-'] = true;
+	}
+
+	private final byte[] json;
+
+	/** Per placeholder, in order, where it starts and where the text after it starts */
+	private final int[] starts;
+	private final int[] ends;
+	private final String[] slots;
+	private final Set<String> names;
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if the message is one Slack would refuse, as SlackMessage.prepare does
+	 */
+	public SlackTemplate(SlackMessage message) {
+		if (message == null) {
+			throw new IllegalArgumentException("Missing SlackMessage @ SlackTemplate");
+		}
+
+		final SlackJsonWriter out = SlackJsonWriter.acquire();
+		try {
+			message.writeJson(out);
+			this.json = Arrays.copyOf(out.buffer(), out.size());
+		} catch (IOException e) {
+			throw new SlackException(e);
+		} finally {
+			out.release();
+		}
+
+		final List<Integer> bounds = new ArrayList<Integer>();
+		final List<String> slots = new ArrayList<String>();
+		for (int i = 0; i + 4 < json.length; i++) {
+			if (json[i] != OPEN || json[i + 1] != OPEN) {
+				continue;
+			}
+
+			int end = i + 2;
+			while (end < json.length && json[end] >= 0 && NAME_CHARS[json[end]]) {
+				end++;
+			}
+
+			if (end > i + 2 && end + 1 < json.length && json[end] == CLOSE && json[end + 1] == CLOSE) {
+				bounds.add(i);
+				bounds.add(end + 2);
+				slots.add(new String(json, i + 2, end - i - 2, StandardCharsets.US_ASCII));
+				i = end + 1;
+			}
+		}
+
+		this.starts = new int[slots.size()];
+		this.ends = new int[slots.size()];
+		for (int slot = 0; slot < starts.length; slot++) {
+			starts[slot] = bounds.get(slot * 2);
+			ends[slot] = bounds.get(slot * 2 + 1);
+		}
+		this.slots = slots.toArray(new String[0]);
+		this.names = Collections.unmodifiableSet(new LinkedHashSet<String>(slots));
+	}
+
+	/**
+	 * @return the placeholder names, in the order they first appear
+	 */
+	public Set<String> getNames() {
+		return names;
+	}
+
+	/**
+	 * @return the JSON a post of the template with these values sends
+	 * @throws IllegalArgumentException
+	 *             if a placeholder has no value
+	 */
+	public String render(Map<String, ?> values) {
+		final SlackJsonWriter out = SlackJsonWriter.acquire();
+		try {
+			this.writeJson(out, values);
+			return new String(out.buffer(), 0, out.size(), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			throw new SlackException(e);
+		} finally {
+			out.release();
+		}
+	}
+
+	/**
+	 * Write the fixed parts and the escaped values in turn. Every value is checked before
+	 * anything is written.
+	 */
+	void writeJson(SlackJsonWriter out, Map<String, ?> values) throws IOException {
+		for (String name : names) {
+			if (values == null || values.get(name) == null) {
+				throw new IllegalArgumentException("Missing Placeholder Value @ SlackTemplate");
+			}
+		}
+
+		int at = 0;
+		for (int slot = 0; slot < slots.length; slot++) {
+			out.splice(json, at, starts[slot] - at);
+			out.spliceString(String.valueOf(values.get(slots[slot])));
+			at = ends[slot];
+		}
+		out.splice(json, at, json.length - at);
+	}
+
+	@Override
+	public String toString() {
+		return "SlackTemplate{" + "names=" + names + ", size=" + json.length + '}';
+	}
+}
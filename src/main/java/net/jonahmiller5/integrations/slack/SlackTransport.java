@@ -0,0 +1,44 @@
+package net.jonahmiller5.integrations.slack;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Carries webhook posts for a SlackApi
+ *
+ * Shipped transports: SlackUrlConnectionTransport (the default for blocking calls),
+ * SlackHttpClientTransport (the default for callAsync), SlackConnectionPool and
+ * SlackStubTransport, an in-memory stand-in for tests and offline benchmarks.
+ *
+ * Transports answer with the status and body they got; turning non-2xx answers into failures,
+ * retries and rate limits stay in SlackApi.
+ */
+public interface SlackTransport {
+
+	/**
+	 * Post the request and wait for the answer
+	 */
+	SlackResponse send(SlackRequest request) throws IOException;
+
+	/**
+	 * Post the request without waiting for the answer
+	 *
+	 * The default runs send on a virtual thread on JDK 21 and later, else on a shared pool of
+	 * daemon threads. Transports with non-blocking IO of their own override it.
+	 */
+	default CompletableFuture<SlackResponse> sendAsync(final SlackRequest request) {
+		final CompletableFuture<SlackResponse> result = new CompletableFuture<SlackResponse>();
+		SlackTransportExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					result.complete(send(request));
+				} catch (Throwable e) {
+					result.completeExceptionally(e);
+				}
+			}
+		});
+
+		return result;
+	}
+}
@@ -0,0 +1,51 @@
+package net.jonahmiller5.integrations.slack;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs blocking transports' async posts: a virtual thread per post when the JDK has them, a
+ * shared cached pool of daemon threads otherwise
+ */
+final class SlackTransportExecutor {
+
+	private static final ThreadFactory VIRTUAL = SlackVirtualThreads.isSupported()
+			? SlackVirtualThreads.factory("slack-transport-") : null;
+
+	private static volatile ExecutorService pool;
+
+	private SlackTransportExecutor() {
+	}
+
+	static void execute(Runnable task) {
+		if (VIRTUAL != null) {
+			VIRTUAL.newThread(task).start();
+		} else {
+			pool().execute(task);
+		}
+	}
+
+	private static ExecutorService pool() {
+		ExecutorService result = pool;
+		if (result == null) {
+			synchronized (SlackTransportExecutor.class) {
+				result = pool;
+				if (result == null) {
+					final AtomicInteger count = new AtomicInteger();
+					result = pool = Executors.newCachedThreadPool(new ThreadFactory() {
+						@Override
+						public Thread newThread(Runnable runnable) {
+							final Thread thread = new Thread(runnable, "slack-transport-" + count.getAndIncrement());
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+				}
+			}
+		}
+
+		return result;
+	}
+}
@@ -0,0 +1,89 @@
+package net.jonahmiller5.integrations.slack;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Posts over a new HttpURLConnection per request, which the JDK may keep alive underneath
+ *
+ * The default transport for SlackApi's blocking calls.
+ */
+public class SlackUrlConnectionTransport implements SlackTransport {
+
+	private static final String POST = "POST";
+	private static final String CONTENT_TYPE = "Content-Type";
+	private static final String RETRY_AFTER = "Retry-After";
+
+	@Override
+	public SlackResponse send(SlackRequest request) throws IOException {
+		final SlackSendEvent event = request.getEvent();
+		HttpURLConnection connection = null;
+		try {
+			// Create connection
+			final URL url = new URL(request.getUrl());
+			connection = (HttpURLConnection) url.openConnection(request.getProxy());
+			connection.setRequestMethod(POST);
+			connection.setConnectTimeout(request.getTimeout());
+			connection.setUseCaches(false);
+			connection.setDoInput(true);
+			connection.setDoOutput(true);
+
+			// Stream the body, in chunks if it is neither built as a string nor buffered to measure it
+			connection.setRequestProperty(CONTENT_TYPE, request.getContentType());
+			if (request.getContentLength() < 0) {
+				connection.setChunkedStreamingMode(0);
+			} else {
+				connection.setFixedLengthStreamingMode(request.getContentLength());
+			}
+
+			// Connect up front so the JFR event can tell connecting from writing
+			final long connecting = System.nanoTime();
+			connection.connect();
+			final long writing = System.nanoTime();
+
+			// Send request
+			final OutputStream wr = connection.getOutputStream();
+			request.writeTo(wr);
+			wr.close();
+			final long reading = System.nanoTime();
+
+			// Get Response, error answers carry Slack's error code in the error stream
+			final int status = connection.getResponseCode();
+			final InputStream is = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+			final StringBuilder response = new StringBuilder();
+			if (is != null) {
+				final BufferedReader rd = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
+				String line;
+				while ((line = rd.readLine()) != null) {
+					response.append(line);
+					response.append('\n');
+				}
+
+				rd.close();
+			}
+
+			if (event != null) {
+				event.connectDuration = writing - connecting;
+				event.writeDuration = reading - writing;
+				event.readDuration = System.nanoTime() - reading;
+			}
+
+			return new SlackResponse(status, response.toString(), connection.getHeaderField(RETRY_AFTER));
+		} finally {
+			if (connection != null) {
+				connection.disconnect();
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "SlackUrlConnectionTransport{}";
+	}
+}
@@ -0,0 +1,50 @@
+package net.jonahmiller5.integrations.slack;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to JDK 21 virtual threads without requiring JDK 21 to build or run the library
+ */
+final class SlackVirtualThreads {
+
+	private static final Method OF_VIRTUAL = lookup();
+
+	private SlackVirtualThreads() {
+	}
+
+	private static Method lookup() {
+		try {
+			final Method ofVirtual = Thread.class.getMethod("ofVirtual");
+			// Preview builds of JDK 19 and 20 expose the method but refuse to run it
+			ofVirtual.invoke(null);
+			return ofVirtual;
+		} catch (Exception e) {
+			return null;
+		} catch (LinkageError e) {
+			return null;
+		}
+	}
+
+	static boolean isSupported() {
+		return OF_VIRTUAL != null;
+	}
+
+	/**
+	 * @return a factory for virtual threads named prefix0, prefix1, ...
+	 */
+	static ThreadFactory factory(String prefix) {
+		if (OF_VIRTUAL == null) {
+			throw new IllegalStateException("Virtual threads need JDK 21 or later @ SlackVirtualThreads");
+		}
+
+		try {
+			final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			Object builder = OF_VIRTUAL.invoke(null);
+			builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+			return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+		} catch (Exception e) {
+			throw new IllegalStateException("Virtual threads unavailable @ SlackVirtualThreads", e);
+		}
+	}
+}